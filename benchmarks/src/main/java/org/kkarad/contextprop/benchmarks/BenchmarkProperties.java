@@ -0,0 +1,102 @@
+package org.kkarad.contextprop.benchmarks;
+
+import org.kkarad.contextprop.DomainPredicates;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+import static java.lang.String.format;
+
+/**
+ * Generates a valid contextprop file of configurable shape. Every property group has a default entry and
+ * {@code contextsPerGroup} entries with context. The contexts of a group define the same domain keys (the first
+ * {@code conditionsPerContext} keys of {@link BenchmarkDomain}) and their condition values do not overlap, so the
+ * generated file passes validation. The predicates match the last context of every group, hence the resolver has
+ * to go through all contexts before it finds the winning one.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkProperties {
+
+    @SuppressWarnings("unused")
+    public enum BenchmarkDomain {
+        env, loc, grp, app, usr, hst
+    }
+
+    @Param({"100", "10000"})
+    public int propertyCount;
+
+    @Param({"1", "10", "100"})
+    public int contextsPerGroup;
+
+    @Param({"1", "3", "6"})
+    public int conditionsPerContext;
+
+    @Param({"1", "5"})
+    public int valuesPerCondition;
+
+    Properties unresolved;
+
+    /**
+     * The unresolved properties in the {@code .properties} file format
+     */
+    String unresolvedText;
+
+    DomainPredicates predicates;
+
+    String[] propertyKeys;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDomain[] domainKeys = BenchmarkDomain.values();
+        if (conditionsPerContext < 1 || conditionsPerContext > domainKeys.length) {
+            throw new IllegalArgumentException(format("conditionsPerContext should be between 1 and %s", domainKeys.length));
+        }
+
+        unresolved = new Properties();
+        propertyKeys = new String[propertyCount];
+        for (int p = 0; p < propertyCount; p++) {
+            String propertyKey = "benchmark.property." + p;
+            propertyKeys[p] = propertyKey;
+            unresolved.setProperty(propertyKey, Integer.toString(-p));
+            for (int c = 0; c < contextsPerGroup; c++) {
+                unresolved.setProperty(contextKey(propertyKey, domainKeys, c), Integer.toString(p * contextsPerGroup + c));
+            }
+        }
+
+        StringWriter writer = new StringWriter();
+        try {
+            unresolved.store(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unresolvedText = writer.toString();
+
+        DomainPredicates.Builder builder = DomainPredicates.basedOnDomain(BenchmarkDomain.class);
+        for (BenchmarkDomain domainKey : domainKeys) {
+            builder.predicate(domainKey.name(), conditionValue(contextsPerGroup - 1, 0));
+        }
+        predicates = builder.create();
+    }
+
+    private String contextKey(String propertyKey, BenchmarkDomain[] domainKeys, int context) {
+        StringBuilder b = new StringBuilder(propertyKey).append(".CTXT(");
+        for (int k = 0; k < conditionsPerContext; k++) {
+            b.append(k != 0 ? "," : "").append(domainKeys[k].name()).append('[');
+            for (int v = 0; v < valuesPerCondition; v++) {
+                b.append(v != 0 ? "," : "").append(conditionValue(context, v));
+            }
+            b.append(']');
+        }
+        return b.append(')').toString();
+    }
+
+    private String conditionValue(int context, int value) {
+        return "v" + (context * valuesPerCondition + value);
+    }
+}
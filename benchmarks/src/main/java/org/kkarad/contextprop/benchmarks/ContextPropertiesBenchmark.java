@@ -0,0 +1,55 @@
+package org.kkarad.contextprop.benchmarks;
+
+import org.kkarad.contextprop.ContextProperties;
+import org.kkarad.contextprop.TypedProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextPropertiesBenchmark {
+
+    private ContextProperties contextProperties;
+
+    private TypedProperties typedProperties;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp(BenchmarkProperties properties) {
+        contextProperties = ContextProperties.basedOnDomain(BenchmarkProperties.BenchmarkDomain.class)
+                .create(properties.unresolved);
+        typedProperties = contextProperties.resolveTyped(properties.predicates);
+    }
+
+    @Benchmark
+    public String resolveString(BenchmarkProperties properties) {
+        return contextProperties.resolveString(nextKey(properties), properties.predicates);
+    }
+
+    @Benchmark
+    public int resolveInteger(BenchmarkProperties properties) {
+        return contextProperties.resolveInteger(nextKey(properties), properties.predicates);
+    }
+
+    @Benchmark
+    public int resolveIntegerWithDefault(BenchmarkProperties properties) {
+        return contextProperties.resolveInteger(nextKey(properties), properties.predicates, -1);
+    }
+
+    @Benchmark
+    public String resolveTypedString(BenchmarkProperties properties) {
+        return typedProperties.getString(nextKey(properties));
+    }
+
+    private String nextKey(BenchmarkProperties properties) {
+        String key = properties.propertyKeys[next];
+        next = next + 1 == properties.propertyKeys.length ? 0 : next + 1;
+        return key;
+    }
+}
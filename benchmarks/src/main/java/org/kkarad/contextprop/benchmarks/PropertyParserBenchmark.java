@@ -0,0 +1,60 @@
+package org.kkarad.contextprop.benchmarks;
+
+import org.kkarad.contextprop.ContextProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyParserBenchmark {
+
+    private ContextProperties.Builder builder;
+
+    private ContextProperties.Builder streamingBuilder;
+
+    private ContextProperties.Builder parallelBuilder;
+
+    @Setup
+    public void setUp() {
+        builder = ContextProperties.basedOnDomain(BenchmarkProperties.BenchmarkDomain.class);
+        streamingBuilder = ContextProperties.basedOnDomain(BenchmarkProperties.BenchmarkDomain.class)
+                .rejectDuplicateKeys();
+        parallelBuilder = ContextProperties.basedOnDomain(BenchmarkProperties.BenchmarkDomain.class)
+                .parallel();
+    }
+
+    @Benchmark
+    public ContextProperties parse(BenchmarkProperties properties) {
+        return builder.create(properties.unresolved);
+    }
+
+    @Benchmark
+    public ContextProperties loadAndParse(BenchmarkProperties properties) throws IOException {
+        Properties unresolved = new Properties();
+        unresolved.load(new StringReader(properties.unresolvedText));
+        return builder.create(unresolved);
+    }
+
+    @Benchmark
+    public ContextProperties parseReader(BenchmarkProperties properties) throws IOException {
+        return builder.create(new StringReader(properties.unresolvedText));
+    }
+
+    @Benchmark
+    public ContextProperties parseStream(BenchmarkProperties properties) throws IOException {
+        return streamingBuilder.create(new StringReader(properties.unresolvedText));
+    }
+
+    @Benchmark
+    public ContextProperties parseParallel(BenchmarkProperties properties) {
+        return parallelBuilder.create(properties.unresolved);
+    }
+}
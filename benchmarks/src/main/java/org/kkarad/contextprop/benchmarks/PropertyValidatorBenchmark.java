@@ -0,0 +1,29 @@
+package org.kkarad.contextprop.benchmarks;
+
+import org.kkarad.contextprop.ContextProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyValidatorBenchmark {
+
+    private ContextProperties contextProperties;
+
+    @Setup
+    public void setUp(BenchmarkProperties properties) {
+        contextProperties = ContextProperties.basedOnDomain(BenchmarkProperties.BenchmarkDomain.class)
+                .create(properties.unresolved);
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return contextProperties.validateAll();
+    }
+}
@@ -0,0 +1,21 @@
+package org.kkarad.contextprop.benchmarks;
+
+import org.kkarad.contextprop.ContextProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolverBenchmark {
+
+    @Benchmark
+    public Properties resolve(BenchmarkProperties properties) {
+        return ContextProperties.basedOn(properties.predicates).resolve(properties.unresolved);
+    }
+}
@@ -0,0 +1,283 @@
+package org.kkarad.contextprop.processor;
+
+import org.kkarad.contextprop.CompiledPropertyFile;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Generates typed accessors of the property groups of the file declared by {@link ContextPropertiesSource}; the file
+ * is validated at compile time
+ */
+@SupportedAnnotationTypes("org.kkarad.contextprop.processor.ContextPropertiesSource")
+public final class ContextPropertiesProcessor extends AbstractProcessor {
+
+    private enum Type {
+        BOOLEAN("boolean", "Boolean"),
+        INTEGER("int", "Integer"),
+        LONG("long", "Long"),
+        DOUBLE("double", "Double"),
+        STRING("String", "String");
+
+        private final String primitive;
+
+        private final String boxed;
+
+        Type(String primitive, String boxed) {
+            this.primitive = primitive;
+            this.boxed = boxed;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(ContextPropertiesSource.class)) {
+            try {
+                process((TypeElement) element, element.getAnnotation(ContextPropertiesSource.class));
+            } catch (IOException e) {
+                error(element, "Generation of context properties failed: %s", e);
+            }
+        }
+        return true;
+    }
+
+    private void process(TypeElement element, ContextPropertiesSource source) throws IOException {
+        TypeElement domain = domain(source);
+        if (domain == null || domain.getKind() != ElementKind.ENUM) {
+            error(element, "The domain of the context properties should be an enum");
+            return;
+        }
+        List<String> domainKeys = domain.getEnclosedElements().stream()
+                .filter(enclosed -> enclosed.getKind() == ElementKind.ENUM_CONSTANT)
+                .map(enclosed -> enclosed.getSimpleName().toString())
+                .collect(Collectors.toList());
+
+        CompiledPropertyFile file;
+        try (InputStream inputStream = open(source.file())) {
+            if (inputStream == null) {
+                error(element, "Context properties file '%s' cannot be found", source.file());
+                return;
+            }
+            file = CompiledPropertyFile.read(inputStream, domainKeys, source.requiresDefault());
+        }
+        if (!file.errors().isEmpty()) {
+            file.errors().forEach(message -> error(element, "%s: %s", source.file(), message));
+            return;
+        }
+
+        String packageName = packageName(element);
+        String className = source.className().isEmpty()
+                ? element.getSimpleName() + "Properties"
+                : source.className();
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        String code = generate(element, source.file(), packageName, className, file.properties());
+        if (code != null) {
+            try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, element).openWriter()) {
+                writer.write(code);
+            }
+        }
+    }
+
+    private TypeElement domain(ContextPropertiesSource source) {
+        TypeMirror mirror;
+        try {
+            source.domain();
+            return null;
+        } catch (MirroredTypeException e) {
+            mirror = e.getTypeMirror();
+        }
+        return (TypeElement) processingEnv.getTypeUtils().asElement(mirror);
+    }
+
+    private InputStream open(String path) {
+        for (StandardLocation location : new StandardLocation[]{StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_PATH}) {
+            try {
+                FileObject resource = processingEnv.getFiler().getResource(location, "", path);
+                return resource.openInputStream();
+            } catch (IOException | IllegalArgumentException e) {
+                //not found in this location
+            }
+        }
+        return null;
+    }
+
+    private String generate(TypeElement element,
+                            String path,
+                            String packageName,
+                            String className,
+                            List<CompiledPropertyFile.Property> properties) {
+        Map<String, String> methodKeys = new HashMap<>();
+        StringBuilder constants = new StringBuilder();
+        StringBuilder resolutions = new StringBuilder();
+        StringBuilder accessors = new StringBuilder();
+        for (int i = 0; i < properties.size(); i++) {
+            CompiledPropertyFile.Property property = properties.get(i);
+            String method = methodName(property.key());
+            String previous = methodKeys.put(method, property.key());
+            if (previous != null) {
+                error(element, "Properties '%s' and '%s' map to the same accessor %s()", previous, property.key(), method);
+                return null;
+            }
+            String constant = constantName(method);
+            String key = literal(property.key());
+            Type type = type(property.values());
+
+            constants.append(format("    private static final int %s = %d;%n%n", constant, i));
+            accessors.append(format("    /**%n     * Returns the value of {@code %s}%n     */%n", javadoc(property.key())));
+            if (property.hasDefault()) {
+                resolutions.append(type == Type.STRING
+                        ? format("        values[%s] = properties.resolveOptString(%s, predicates).orElse(null);%n", constant, key)
+                        : format("        values[%s] = properties.resolve%s(%s, predicates);%n", constant, type.boxed, key));
+                accessors.append(format("    public %s %s() {%n        return (%s) values[%s];%n    }%n%n",
+                        type.primitive, method, type.boxed, constant));
+            } else {
+                resolutions.append(format("        values[%s] = properties.resolveOpt%s(%s, predicates);%n",
+                        constant, type.boxed, key));
+                accessors.append(format("    @SuppressWarnings(\"unchecked\")%n    public Optional<%s> %s() {%n" +
+                                "        return (Optional<%s>) values[%s];%n    }%n%n",
+                        type.boxed, method, type.boxed, constant));
+            }
+        }
+
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            code.append(format("package %s;%n%n", packageName));
+        }
+        code.append(format("import org.kkarad.contextprop.ContextProperties;%n"))
+                .append(format("import org.kkarad.contextprop.DomainPredicates;%n%n"))
+                .append(format("import java.util.Optional;%n%n"))
+                .append(format("/**%n * Typed accessors of the properties of {@code %s}; generated by %s from %s%n */%n",
+                        javadoc(path), getClass().getSimpleName(), element.getQualifiedName()))
+                .append(format("public final class %s {%n%n", className))
+                .append(constants)
+                .append(format("    private final Object[] values = new Object[%d];%n%n", properties.size()))
+                .append(format("    /**%n     * Resolves all properties against the given predicates%n     */%n"))
+                .append(format("    public %s(ContextProperties properties, DomainPredicates predicates) {%n", className))
+                .append(resolutions)
+                .append(format("    }%n%n"))
+                .append(accessors);
+        code.setLength(code.length() - System.lineSeparator().length());
+        code.append(format("}%n"));
+        return code.toString();
+    }
+
+    private static Type type(List<String> values) {
+        for (Type type : Type.values()) {
+            if (values.stream().allMatch(value -> parses(type, value))) {
+                return type;
+            }
+        }
+        return Type.STRING;
+    }
+
+    private static boolean parses(Type type, String value) {
+        try {
+            switch (type) {
+                case BOOLEAN:
+                    return "true".equals(value) || "false".equals(value);
+                case INTEGER:
+                    Integer.parseInt(value);
+                    return true;
+                case LONG:
+                    Long.parseLong(value);
+                    return true;
+                case DOUBLE:
+                    Double.parseDouble(value);
+                    return !value.trim().isEmpty();
+                default:
+                    return true;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static String methodName(String key) {
+        StringBuilder name = new StringBuilder();
+        boolean upper = false;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!Character.isJavaIdentifierPart(c) || c == '_' || c == '$') {
+                upper = name.length() > 0;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            name.insert(0, '_');
+        }
+        if (SourceVersion.isKeyword(name)) {
+            name.append('_');
+        }
+        return name.toString();
+    }
+
+    private static String constantName(String methodName) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < methodName.length(); i++) {
+            char c = methodName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                name.append('_');
+            }
+            name.append(Character.toUpperCase(c));
+        }
+        return name.toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20) {
+                literal.append(format("\\%03o", (int) c));
+            } else if (c > 0x7e) {
+                literal.append(format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static String javadoc(String value) {
+        return value.replace("*/", "*&#47;").replace("@", "&#64;").replace("\\", "&#92;");
+    }
+
+    private String packageName(Element element) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private void error(Element element, String message, Object... args) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, format(message, args), element);
+    }
+}
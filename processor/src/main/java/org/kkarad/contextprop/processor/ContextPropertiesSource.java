@@ -0,0 +1,25 @@
+package org.kkarad.contextprop.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the file of which the typed accessors are generated into the class named after the annotated type
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface ContextPropertiesSource {
+
+    /**
+     * Relative to the class output or the source path
+     */
+    String file();
+
+    Class<? extends Enum<?>> domain();
+
+    boolean requiresDefault() default false;
+
+    String className() default "";
+}
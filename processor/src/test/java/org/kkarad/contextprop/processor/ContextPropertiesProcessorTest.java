@@ -0,0 +1,150 @@
+package org.kkarad.contextprop.processor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kkarad.contextprop.ContextProperties;
+import org.kkarad.contextprop.DomainPredicates;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextPropertiesProcessorTest {
+
+    private static final String DOMAIN = "package my.app;\n" +
+            "public enum MyDomain { env, loc }\n";
+
+    private static final String PROPERTIES = "my.port=8080\n" +
+            "my.port.CTXT(env[uat])=9090\n" +
+            "my.enabled.CTXT(env[uat])=true\n" +
+            "my.host-name=localhost\n" +
+            "my.host-name.CTXT(env[prd])=prd.host\n";
+
+    private Path directory;
+
+    private Path output;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("contextprop");
+        output = Files.createDirectory(directory.resolve("classes"));
+        file = output.resolve("context.properties");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    @DisplayName("Typed accessors are generated for the properties of the file")
+    void typedAccessorsAreGeneratedForThePropertiesOfTheFile() throws Exception {
+        write(PROPERTIES);
+
+        List<Diagnostic<? extends JavaFileObject>> errors = compile();
+
+        assertThat(errors).isEmpty();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            @SuppressWarnings("unchecked")
+            Class<? extends Enum> domain = (Class<? extends Enum>) classLoader.loadClass("my.app.MyDomain");
+            ContextProperties properties = ContextProperties.basedOnDomain(domain).create(file);
+            DomainPredicates predicates = DomainPredicates.basedOnDomain(domain)
+                    .predicate("env", "uat")
+                    .predicate("loc", "ldn")
+                    .create();
+
+            Class<?> generated = classLoader.loadClass("my.app.AppConfigProperties");
+            Object accessors = generated.getConstructor(ContextProperties.class, DomainPredicates.class)
+                    .newInstance(properties, predicates);
+
+            assertThat(generated.getMethod("myPort").getReturnType()).isEqualTo(int.class);
+            assertThat(generated.getMethod("myPort").invoke(accessors)).isEqualTo(9090);
+            assertThat(generated.getMethod("myEnabled").getReturnType()).isEqualTo(Optional.class);
+            assertThat(generated.getMethod("myEnabled").invoke(accessors)).isEqualTo(Optional.of(true));
+            assertThat(generated.getMethod("myHostName").invoke(accessors)).isEqualTo("localhost");
+        }
+    }
+
+    @Test
+    @DisplayName("Domain keys which are not constants of the domain enum are compilation errors")
+    void domainKeysWhichAreNotConstantsOfTheDomainEnumAreCompilationErrors() throws IOException {
+        write(PROPERTIES + "my.port.CTXT(region[emea])=7070\n");
+
+        List<Diagnostic<? extends JavaFileObject>> errors = compile();
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getMessage(null)).contains("Unrecognised domain key: 'region' in property: 'my.port'");
+    }
+
+    @Test
+    @DisplayName("Property keys are mapped to camel case accessor names")
+    void propertyKeysAreMappedToCamelCaseAccessorNames() {
+        assertThat(ContextPropertiesProcessor.methodName("my.prop-key")).isEqualTo("myPropKey");
+        assertThat(ContextPropertiesProcessor.methodName("my_prop..KEY")).isEqualTo("myPropKEY");
+        assertThat(ContextPropertiesProcessor.methodName("1st.prop")).isEqualTo("_1stProp");
+        assertThat(ContextPropertiesProcessor.methodName("class")).isEqualTo("class_");
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile() throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src/my/app"));
+        Files.write(sources.resolve("MyDomain.java"), DOMAIN.getBytes(StandardCharsets.UTF_8));
+        Files.write(sources.resolve("AppConfig.java"), ("package my.app;\n" +
+                "import org.kkarad.contextprop.processor.ContextPropertiesSource;\n" +
+                "@ContextPropertiesSource(file = \"context.properties\", domain = MyDomain.class)\n" +
+                "interface AppConfig {}\n").getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            String classPath = Stream.of(ContextProperties.class, ContextPropertiesSource.class)
+                    .map(type -> location(type).toString())
+                    .collect(Collectors.joining(File.pathSeparator));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", classPath, "-d", output.toString(), "-Xlint:none"),
+                    null,
+                    fileManager.getJavaFileObjects(sources.resolve("MyDomain.java").toFile(), sources.resolve("AppConfig.java").toFile()));
+            task.setProcessors(Arrays.asList(new ContextPropertiesProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .collect(Collectors.toList());
+    }
+
+    private static Path location(Class<?> type) {
+        try {
+            return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -1,7 +1,15 @@
 package org.kkarad.contextprop;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
+import static org.kkarad.contextprop.FlightRecorderEvents.*;
+
 @SuppressWarnings("unchecked")
 abstract class AbstractBuilder<T extends AbstractBuilder> {
 
@@ -23,15 +31,21 @@ abstract class AbstractBuilder<T extends AbstractBuilder> {
 
     boolean systemPropertyOverride = false;
 
-    Consumer<String> debugMsgParser = msg -> {
-    };
+    boolean rejectDuplicateKeys = false;
 
-    Consumer<String> debugMsgResolver = msg -> {
-    };
+    Consumer<String> debugMsgParser = null;
+
+    Consumer<String> debugMsgResolver = null;
 
     ResolutionConsumer resolutionLogger = (property, systemOverridden, value, isLast) -> {
     };
 
+    ForkJoinPool pool = null;
+
+    ResolutionMetrics metrics = null;
+
+    int resolutionEventsPerSecond = 0;
+
     AbstractBuilder() {
     }
 
@@ -45,6 +59,15 @@ abstract class AbstractBuilder<T extends AbstractBuilder> {
         return (T) this;
     }
 
+    /**
+     * A repeated key of a {@code Reader}, {@code InputStream} or {@code Path} fails the parsing instead of replacing
+     * the earlier value, and lets the source be parsed while it is read
+     */
+    public T rejectDuplicateKeys() {
+        this.rejectDuplicateKeys = true;
+        return (T) this;
+    }
+
     public T debugParser(Consumer<String> debugMsgConsumer) {
         this.debugMsgParser = debugMsgConsumer;
         return (T) this;
@@ -60,10 +83,104 @@ abstract class AbstractBuilder<T extends AbstractBuilder> {
         return (T) this;
     }
 
-    PropertyParser createParser() {
-        ParseVisitor visitor = new LogAndDelegateVisitor(debugMsgParser, new ContextVisitor());
+    public T parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * The debug consumers are called from the pool threads
+     */
+    public T parallel(ForkJoinPool pool) {
+        this.pool = pool;
+        return (T) this;
+    }
+
+    Collection<ContextProperty> parse(Domain domain, Properties unresolved) {
+        Object event = FlightRecorderEvents.beginPhase();
+        Collection<ContextProperty> properties = pool != null
+                ? createParallelParser(domain).parse(unresolved)
+                : createParser(domain).parse(unresolved);
+        FlightRecorderEvents.endPhase(event, PARSE, properties.size());
+        return properties;
+    }
+
+    Collection<ContextProperty> parse(Domain domain, Map<String, String> entries) {
+        Object event = FlightRecorderEvents.beginPhase();
+        Collection<ContextProperty> properties = pool != null
+                ? createParallelParser(domain).parse(entries)
+                : createParser(domain).parse(entries);
+        FlightRecorderEvents.endPhase(event, PARSE, properties.size());
+        return properties;
+    }
+
+    Collection<ContextProperty> parse(ConditionCodes codes, Map<String, String> entries) {
+        Object event = FlightRecorderEvents.beginPhase();
+        Collection<ContextProperty> properties = createParser(new ContextVisitor(codes)).parse(entries);
+        FlightRecorderEvents.endPhase(event, PARSE, properties.size());
+        return properties;
+    }
+
+    static String propertyKey(String keyText) {
+        int identifier = keyText.indexOf(CONTEXT_IDENTIFIER);
+        return identifier >= 0 ? keyText.substring(0, identifier) : keyText;
+    }
+
+    /**
+     * The source is parsed while it is read only when keys cannot repeat, as a repeated key replaces the earlier value
+     */
+    Collection<ContextProperty> parse(Domain domain, PropertySource unresolved) throws IOException {
+        if (pool != null || !rejectDuplicateKeys) {
+            return parse(domain, read(unresolved));
+        }
+        Object event = FlightRecorderEvents.beginPhase();
+        Collection<ContextProperty> properties = createParser(domain).parse(unresolved);
+        FlightRecorderEvents.endPhase(event, PARSE, properties.size());
+        return properties;
+    }
+
+    Map<String, String> read(PropertySource unresolved) throws IOException {
+        Object event = FlightRecorderEvents.beginPhase();
+        Map<String, String> entries = unresolved.entries(rejectDuplicateKeys);
+        FlightRecorderEvents.endPhase(event, SOURCE_READ, entries.size());
+        return entries;
+    }
+
+    void validate(Domain domain, Collection<ContextProperty> properties) {
+        Object event = FlightRecorderEvents.beginPhase();
+        List<Error> errors = createValidator(domain).validateAll(properties);
+        FlightRecorderEvents.endPhase(event, VALIDATE, properties.size());
+        logErrors(errors);
+    }
+
+    void logErrors(List<Error> errors) {
+        if (debugMsgParser != null) {
+            errors.forEach(error -> debugMsgParser.accept("PropertyValidator.validate -> " + error.message()));
+        }
+    }
+
+    PropertyParser createParser(Domain domain) {
+        return createParser(new ContextVisitor(domain));
+    }
+
+    ParallelPropertyParser createParallelParser(Domain domain) {
+        return new ParallelPropertyParser(pool, new ContextVisitor(domain), this::createParser);
+    }
+
+    private PropertyParser createParser(ContextVisitor contextVisitor) {
+        ParseVisitor visitor = debugMsgParser != null
+                ? new LogAndDelegateVisitor(debugMsgParser, contextVisitor)
+                : contextVisitor;
         return new PropertyParser(
                 visitor,
+                new ContextTokenizer(
+                        CONTEXT_IDENTIFIER,
+                        CONTEXT_START_PATTERN,
+                        CONTEXT_END_PATTERN,
+                        CONDITION_VALUE_START_PATTERN,
+                        CONDITION_VALUE_END_PATTERN,
+                        CONDITION_VALUE_DELIMITER.charAt(0),
+                        CONDITION_DELIMITER,
+                        visitor),
                 new ContextPattern(
                         CONTEXT_IDENTIFIER,
                         CONTEXT_START_PATTERN,
@@ -78,14 +195,17 @@ abstract class AbstractBuilder<T extends AbstractBuilder> {
     }
 
     PropertyValidator createValidator(Domain domain) {
-        return new PropertyValidator(domain, requiresDefault);
+        return new PropertyValidator(domain, requiresDefault, pool);
     }
 
     ContextPropertyResolver createResolver() {
+        DebugLog debugResolver = DebugLog.of(debugMsgResolver);
         return new ContextPropertyResolver(
-                new PropertyResolver(debugMsgResolver),
+                new PropertyResolver(debugResolver, metrics, resolutionEventsPerSecond),
                 systemPropertyOverride,
-                debugMsgResolver,
-                resolutionLogger);
+                debugResolver,
+                resolutionLogger,
+                pool,
+                metrics);
     }
 }
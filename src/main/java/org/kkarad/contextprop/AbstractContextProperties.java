@@ -0,0 +1,106 @@
+package org.kkarad.contextprop;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The typed {@code resolveX} methods of the properties, on top of the resolution of a property value
+ */
+abstract class AbstractContextProperties {
+
+    AbstractContextProperties() {
+    }
+
+    /**
+     * Returns null when the property is missing or no context matches the predicates
+     */
+    abstract PropertyValue nullableValue(String property, DomainPredicates predicates);
+
+    /**
+     * Throws {@link PropertyNotFoundException} when the property is missing or its value is missing or empty
+     */
+    abstract PropertyValue value(String property, DomainPredicates predicates);
+
+    public Optional<String> resolveOptString(String property, DomainPredicates predicates) {
+        PropertyValue value = nullableValue(property, predicates);
+        return Optional.ofNullable(value != null ? value.text() : null);
+    }
+
+    public String resolveString(String property, DomainPredicates predicates) {
+        return value(property, predicates).text();
+    }
+
+    /**
+     * Empty values are treated as missing, as by the other {@code resolveX} methods with a default value
+     */
+    public boolean resolveBoolean(String property, DomainPredicates predicates, boolean defaultValue) {
+        PropertyValue value = nonEmptyValue(property, predicates);
+        return value != null ? value.as(PropertyValue.BOOLEAN) : defaultValue;
+    }
+
+    public int resolveInteger(String property, DomainPredicates predicates, int defaultValue) {
+        PropertyValue value = nonEmptyValue(property, predicates);
+        return value != null ? value.as(PropertyValue.INTEGER) : defaultValue;
+    }
+
+    public long resolveLong(String property, DomainPredicates predicates, long defaultValue) {
+        PropertyValue value = nonEmptyValue(property, predicates);
+        return value != null ? value.as(PropertyValue.LONG) : defaultValue;
+    }
+
+    public double resolveDouble(String property, DomainPredicates predicates, double defaultValue) {
+        PropertyValue value = nonEmptyValue(property, predicates);
+        return value != null ? value.as(PropertyValue.DOUBLE) : defaultValue;
+    }
+
+    public Optional<Boolean> resolveOptBoolean(String property, DomainPredicates predicates) {
+        return Optional.ofNullable(nullableValue(property, predicates, PropertyValue.BOOLEAN));
+    }
+
+    public boolean resolveBoolean(String property, DomainPredicates predicates) {
+        return value(property, predicates).as(PropertyValue.BOOLEAN);
+    }
+
+    public Optional<Integer> resolveOptInteger(String property, DomainPredicates predicates) {
+        return Optional.ofNullable(nullableValue(property, predicates, PropertyValue.INTEGER));
+    }
+
+    public int resolveInteger(String property, DomainPredicates predicates) {
+        return value(property, predicates).as(PropertyValue.INTEGER);
+    }
+
+    public Optional<Long> resolveOptLong(String property, DomainPredicates predicates) {
+        return Optional.ofNullable(nullableValue(property, predicates, PropertyValue.LONG));
+    }
+
+    public long resolveLong(String property, DomainPredicates predicates) {
+        return value(property, predicates).as(PropertyValue.LONG);
+    }
+
+    public Optional<Double> resolveOptDouble(String property, DomainPredicates predicates) {
+        return Optional.ofNullable(nullableValue(property, predicates, PropertyValue.DOUBLE));
+    }
+
+    public double resolveDouble(String property, DomainPredicates predicates) {
+        return value(property, predicates).as(PropertyValue.DOUBLE);
+    }
+
+    public Optional<BigDecimal> resolveOptBigDecimal(String property, DomainPredicates predicates) {
+        return Optional.ofNullable(nullableValue(property, predicates, PropertyValue.BIG_DECIMAL));
+    }
+
+    public BigDecimal resolveBigDecimal(String property, DomainPredicates predicates) {
+        return value(property, predicates).as(PropertyValue.BIG_DECIMAL);
+    }
+
+    private <T> T nullableValue(String property, DomainPredicates predicates, Function<String, T> parseFunction) {
+        PropertyValue value = nullableValue(property, predicates);
+        return value != null ? value.as(parseFunction) : null;
+    }
+
+    private PropertyValue nonEmptyValue(String property, DomainPredicates predicates) {
+        PropertyValue value = nullableValue(property, predicates);
+        return value != null && !value.isEmpty() ? value : null;
+    }
+}
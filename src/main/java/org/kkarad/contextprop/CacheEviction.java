@@ -0,0 +1,6 @@
+package org.kkarad.contextprop;
+
+public enum CacheEviction {
+    LEAST_RECENTLY_USED,
+    LEAST_FREQUENTLY_USED
+}
@@ -0,0 +1,89 @@
+package org.kkarad.contextprop;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parsed content of a file for tools which know the domain only by its key names; errors are collected, not thrown
+ */
+public final class CompiledPropertyFile {
+
+    private final List<Property> properties;
+
+    private final List<String> errors;
+
+    private CompiledPropertyFile(List<Property> properties, List<String> errors) {
+        this.properties = properties;
+        this.errors = errors;
+    }
+
+    public static CompiledPropertyFile read(InputStream unresolved, List<String> domainKeys, boolean requiresDefault)
+            throws IOException {
+        Domain domain = Domain.create(domainKeys);
+        ContextProperties.Builder builder = ContextProperties.basedOnDomain(domain);
+        if (requiresDefault) {
+            builder.requiresDefault();
+        }
+
+        Collection<ContextProperty> contextProperties;
+        try {
+            contextProperties = builder.parse(domain, PropertySource.of(unresolved));
+        } catch (ContextPropParseException | IllegalArgumentException e) {
+            return new CompiledPropertyFile(Collections.emptyList(), Collections.singletonList(e.getMessage()));
+        }
+
+        PropertyValidator validator = builder.createValidator(domain);
+        List<Property> properties = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (ContextProperty contextProperty : contextProperties) {
+            validator.validate(contextProperty).ifPresent(error -> errors.add(error.message()));
+            List<String> values = new ArrayList<>();
+            if (contextProperty.defaultValue() != null) {
+                values.add(contextProperty.defaultValue());
+            }
+            contextProperty.contexts().forEach(context -> values.add(context.propertyValue()));
+            properties.add(new Property(contextProperty.key(), contextProperty.defaultValue() != null, values));
+        }
+        properties.sort((a, b) -> a.key.compareTo(b.key));
+        return new CompiledPropertyFile(properties, errors);
+    }
+
+    public List<Property> properties() {
+        return properties;
+    }
+
+    public List<String> errors() {
+        return errors;
+    }
+
+    public static final class Property {
+
+        private final String key;
+
+        private final boolean hasDefault;
+
+        private final List<String> values;
+
+        private Property(String key, boolean hasDefault, List<String> values) {
+            this.key = key;
+            this.hasDefault = hasDefault;
+            this.values = values;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public boolean hasDefault() {
+            return hasDefault;
+        }
+
+        public List<String> values() {
+            return values;
+        }
+    }
+}
@@ -1,27 +1,95 @@
 package org.kkarad.contextprop;
 
-import java.util.Objects;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
 
 final class Condition {
+
+    private static final int NOT_CODED = -1;
+
     private final String domainKey;
-    private final Set<String> values;
+    private final int keyId;
+    private final String[] values;
+    private final int[] valueIds;
+
+    Condition(String domainKey, Collection<String> values) {
+        this(domainKey, NOT_CODED, values.toArray(new String[0]), null);
+    }
 
-    Condition(String domainKey, Set<String> values) {
+    Condition(String domainKey, int keyId, String[] values, int[] valueIds) {
         this.domainKey = domainKey;
+        this.keyId = keyId;
         this.values = values;
+        this.valueIds = valueIds;
     }
 
     String domainKey() {
         return domainKey;
     }
 
-    Set<String> values() {
-        return values;
+    List<String> values() {
+        return unmodifiableList(Arrays.asList(values));
+    }
+
+    int noOfValues() {
+        return values.length;
+    }
+
+    String value(int index) {
+        return values[index];
     }
 
-    boolean containsValue(String value) {
-        return values.contains(value);
+    /**
+     * Valid only when the condition is coded (see {@link ConditionCodes})
+     */
+    int keyId() {
+        return keyId;
+    }
+
+    boolean isCoded() {
+        return keyId != NOT_CODED;
+    }
+
+    int[] valueIds() {
+        return valueIds;
+    }
+
+    boolean containsValue(int valueId) {
+        for (int id : valueIds) {
+            if (id >= valueId) {
+                return id == valueId;
+            }
+        }
+        return false;
+    }
+
+    boolean overlaps(Condition that) {
+        if (isCoded() && that.isCoded()) {
+            int i = 0;
+            int j = 0;
+            while (i < valueIds.length && j < that.valueIds.length) {
+                if (valueIds[i] == that.valueIds[j]) {
+                    return true;
+                } else if (valueIds[i] < that.valueIds[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return false;
+        }
+
+        for (String value : values) {
+            for (String thatValue : that.values) {
+                if (value.equals(thatValue)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     @Override
@@ -29,17 +97,22 @@ final class Condition {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Condition condition = (Condition) o;
-        return Objects.equals(domainKey, condition.domainKey) &&
-                Objects.equals(values, condition.values);
+        return domainKey.equals(condition.domainKey) &&
+                values.length == condition.values.length &&
+                Arrays.asList(values).containsAll(Arrays.asList(condition.values));
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(domainKey, values);
+        int hash = domainKey.hashCode();
+        for (String value : values) {
+            hash += value.hashCode();
+        }
+        return hash;
     }
 
     @Override
     public String toString() {
-        return domainKey + "=" + values;
+        return domainKey + "=" + Arrays.toString(values);
     }
 }
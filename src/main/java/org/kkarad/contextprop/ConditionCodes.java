@@ -0,0 +1,201 @@
+package org.kkarad.contextprop;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append only dictionary of domain keys and condition values to dense ids; ids never change once assigned
+ */
+final class ConditionCodes {
+
+    static final int UNKNOWN_VALUE = -1;
+
+    static final int MISSING_PREDICATE = -2;
+
+    private final Domain domain;
+
+    private final Interner keys = new Interner();
+
+    private volatile Interner[] values = new Interner[0];
+
+    private volatile int size = 0;
+
+    private int noOfValues = 0;
+
+    private int noOfUnreferencedValues = 0;
+
+    ConditionCodes() {
+        this.domain = null;
+    }
+
+    ConditionCodes(Domain domain) {
+        this.domain = domain;
+        domain.orderedKeys().forEach(this::keyId);
+    }
+
+    synchronized Condition encode(Condition condition) {
+        int keyId = keyId(condition.domainKey());
+        Interner keyValues = values[keyId];
+        String[] canonicalValues = new String[condition.noOfValues()];
+        int[] valueIds = new int[canonicalValues.length];
+        for (int i = 0; i < canonicalValues.length; i++) {
+            boolean known = keyValues.id(condition.value(i)) != UNKNOWN_VALUE;
+            valueIds[i] = intern(keyValues, condition.value(i));
+            if (keyValues.reference(valueIds[i]) == 1 && known) {
+                noOfUnreferencedValues--;
+            }
+            canonicalValues[i] = keyValues.value(valueIds[i]);
+        }
+        Arrays.sort(valueIds);
+        return new Condition(keys.value(keyId), keyId, canonicalValues, valueIds);
+    }
+
+    synchronized void release(ContextProperty property) {
+        if (!property.release()) {
+            return;
+        }
+        for (Context context : property.contexts()) {
+            for (int c = 0; c < context.noOfConditions(); c++) {
+                Condition condition = context.condition(c);
+                Interner keyValues = values[condition.keyId()];
+                for (int valueId : condition.valueIds()) {
+                    if (keyValues.dereference(valueId) == 0) {
+                        noOfUnreferencedValues++;
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized boolean isMostlyUnreferenced() {
+        return noOfUnreferencedValues * 2 > noOfValues;
+    }
+
+    Encoding encode(DomainPredicates predicates, Encoding reuse) {
+        int codedSize = size;
+        Interner[] keyValues = values;
+        boolean reusable = reuse != null && reuse.codes == this && reuse.valueIds.length == keyValues.length;
+        int[] valueIds = reusable ? reuse.valueIds : new int[keyValues.length];
+        int noOfDomainKeys = domain != null && domain.equals(predicates.domain()) ? domain.numberOfKeys() : -1;
+        for (int keyId = 0; keyId < valueIds.length; keyId++) {
+            String predicate = noOfDomainKeys < 0
+                    ? predicates.value(keys.value(keyId))
+                    : keyId < noOfDomainKeys ? predicates.value(keyId) : null;
+            valueIds[keyId] = predicate != null ? keyValues[keyId].id(predicate) : MISSING_PREDICATE;
+        }
+        if (reusable) {
+            reuse.size = codedSize;
+            reuse.version = predicates.version();
+            return reuse;
+        }
+        return new Encoding(this, codedSize, predicates.version(), valueIds);
+    }
+
+    private int keyId(String domainKey) {
+        int keyId = intern(keys, domainKey);
+        if (keyId == values.length) {
+            Interner[] grown = Arrays.copyOf(values, keyId + 1);
+            grown[keyId] = new Interner();
+            values = grown;
+        }
+        return keyId;
+    }
+
+    private int intern(Interner interner, String value) {
+        int id = interner.id(value);
+        if (id == UNKNOWN_VALUE) {
+            id = interner.add(value);
+            size++;
+            if (interner != keys) {
+                noOfValues++;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Valid as long as no keys or values are added to the dictionary
+     */
+    static final class Encoding {
+
+        private final ConditionCodes codes;
+
+        private int size;
+
+        private int version;
+
+        private final int[] valueIds;
+
+        private Encoding(ConditionCodes codes, int size, int version, int[] valueIds) {
+            this.codes = codes;
+            this.size = size;
+            this.version = version;
+            this.valueIds = valueIds;
+        }
+
+        boolean isFor(ConditionCodes codes) {
+            return this.codes == codes;
+        }
+
+        boolean isCodedBy(ConditionCodes codes) {
+            return this.codes == codes && size == codes.size;
+        }
+
+        int version() {
+            return version;
+        }
+
+        int[] valueIds() {
+            return valueIds;
+        }
+    }
+
+    /**
+     * The value is stored before its id is published
+     */
+    private static final class Interner {
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+        private volatile String[] values = new String[8];
+
+        /**
+         * Guarded by the dictionary
+         */
+        private int[] references = new int[8];
+
+        private int count = 0;
+
+        int id(String value) {
+            Integer id = ids.get(value);
+            return id != null ? id : UNKNOWN_VALUE;
+        }
+
+        int add(String value) {
+            int id = count;
+            if (id == values.length) {
+                values = Arrays.copyOf(values, id * 2);
+            }
+            values[id] = value;
+            count++;
+            ids.put(value, id);
+            return id;
+        }
+
+        String value(int id) {
+            return values[id];
+        }
+
+        int reference(int id) {
+            if (id >= references.length) {
+                references = Arrays.copyOf(references, Math.max(id + 1, references.length * 2));
+            }
+            return ++references[id];
+        }
+
+        int dereference(int id) {
+            return --references[id];
+        }
+    }
+}
@@ -8,39 +8,73 @@ import static org.kkarad.contextprop.Assertions.assertState;
 
 final class Context {
 
-    private final Map<String, Condition> conditions;
+    private final Condition[] conditions;
 
-    private final String propertyValue;
+    private final PropertyValue propertyValue;
 
-    private Context(Map<String, Condition> conditions, String propertyValue) {
+    private Context(Condition[] conditions, PropertyValue propertyValue) {
         this.conditions = conditions;
         this.propertyValue = propertyValue;
     }
 
-    Collection<Condition> conditions() {
-        return conditions.values();
+    List<Condition> conditions() {
+        return Collections.unmodifiableList(Arrays.asList(conditions));
+    }
+
+    int noOfConditions() {
+        return conditions.length;
+    }
+
+    Condition condition(int index) {
+        return conditions[index];
     }
 
     public Condition condition(String domainKey) {
-        return conditions.get(domainKey);
+        for (Condition condition : conditions) {
+            if (condition.domainKey().equals(domainKey)) {
+                return condition;
+            }
+        }
+        return null;
     }
 
     boolean containsCondition(String domainKey) {
-        return conditions.containsKey(domainKey);
+        return condition(domainKey) != null;
     }
 
     boolean equalDomain(Context that) {
-        return conditions.keySet().equals(that.conditions.keySet());
+        if (conditions.length != that.conditions.length) {
+            return false;
+        }
+        for (Condition condition : conditions) {
+            if (!that.containsCondition(condition.domainKey())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     String propertyValue() {
+        return propertyValue.text();
+    }
+
+    PropertyValue value() {
         return propertyValue;
     }
 
+    Context encode(ConditionCodes codes) {
+        Condition[] encoded = new Condition[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            encoded[i] = codes.encode(conditions[i]);
+        }
+        Arrays.sort(encoded, Comparator.comparingInt(Condition::keyId));
+        return new Context(encoded, propertyValue);
+    }
+
     String toStringOrderBy(List<String> orderedKeys) {
         StringBuilder b = new StringBuilder();
         for (String domainKey : orderedKeys) {
-            Condition condition = conditions.get(domainKey);
+            Condition condition = condition(domainKey);
             if (condition != null) {
                 b.append(b.length() != 0 ? "," : "");
                 b.append(condition.domainKey()).append("(");
@@ -60,7 +94,7 @@ final class Context {
 
     @Override
     public String toString() {
-        return conditions.values() + "=" + propertyValue;
+        return Arrays.toString(conditions) + "=" + propertyValue;
     }
 
     static class Builder {
@@ -89,7 +123,7 @@ final class Context {
         }
 
         Context getWithValue(String value) {
-            return new Context(new HashMap<>(conditions), value);
+            return new Context(conditions.values().toArray(new Condition[0]), new PropertyValue(value));
         }
 
         void reset() {
@@ -0,0 +1,219 @@
+package org.kkarad.contextprop;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitsets of the contexts of a group per condition value, ANDed per domain key to match predicates
+ */
+final class ContextIndex {
+
+    static final int MIN_CONTEXTS = 8;
+
+    private final List<Context> contexts;
+
+    private final KeyIndex[] keyIndexes;
+
+    private final long[] allContexts;
+
+    private final int[] noOfKeys;
+
+    private final boolean sameNoOfKeys;
+
+    static ContextIndex create(List<Context> contexts) {
+        return contexts.size() >= MIN_CONTEXTS ? new ContextIndex(contexts) : null;
+    }
+
+    private ContextIndex(List<Context> contexts) {
+        this.contexts = contexts;
+        this.allContexts = new long[words(contexts.size())];
+        this.noOfKeys = new int[contexts.size()];
+
+        Map<Integer, KeyIndex.Builder> keyIndexMap = new TreeMap<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            set(allContexts, i);
+            for (Condition condition : contexts.get(i).conditions()) {
+                keyIndexMap.computeIfAbsent(condition.keyId(), keyId -> new KeyIndex.Builder(condition.domainKey(), allContexts.length))
+                        .add(i, condition);
+                noOfKeys[i]++;
+            }
+        }
+        this.keyIndexes = keyIndexMap.entrySet().stream()
+                .map(entry -> entry.getValue().get(entry.getKey(), allContexts))
+                .toArray(KeyIndex[]::new);
+
+        boolean same = true;
+        for (int i = 1; i < noOfKeys.length; i++) {
+            same &= noOfKeys[i] == noOfKeys[0];
+        }
+        this.sameNoOfKeys = same;
+    }
+
+    Context bestMatch(int[] predicateIds) {
+        if (allContexts.length == 1) {
+            return bestMatch(predicateIds, allContexts[0]);
+        }
+
+        long[] candidates = candidates(predicateIds);
+        if (candidates == null) {
+            return null;
+        }
+
+        int best = -1;
+        for (int w = 0; w < candidates.length; w++) {
+            long word = candidates[w];
+            while (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (sameNoOfKeys) {
+                    return contexts.get(index);
+                }
+                if (best == -1 || noOfKeys[index] > noOfKeys[best]) {
+                    best = index;
+                }
+                word &= word - 1;
+            }
+        }
+        return best != -1 ? contexts.get(best) : null;
+    }
+
+    /**
+     * The number of contexts which {@link #bestMatch(int[])} examines after the key indexes ruled out the others
+     */
+    int scannedContexts(int[] predicateIds) {
+        long[] candidates = candidates(predicateIds);
+        if (candidates == null) {
+            return 0;
+        }
+        int scanned = 0;
+        for (long word : candidates) {
+            scanned += Long.bitCount(word);
+        }
+        return sameNoOfKeys ? Math.min(scanned, 1) : scanned;
+    }
+
+    private long[] candidates(int[] predicateIds) {
+        long[] candidates = allContexts.clone();
+        for (KeyIndex keyIndex : keyIndexes) {
+            int predicateId = PropertyResolver.predicateId(predicateIds, keyIndex.keyId, keyIndex.domainKey);
+            if (!keyIndex.retainMatches(predicateId, candidates)) {
+                return null;
+            }
+        }
+        return candidates;
+    }
+
+    private Context bestMatch(int[] predicateIds, long candidates) {
+        for (KeyIndex keyIndex : keyIndexes) {
+            int predicateId = PropertyResolver.predicateId(predicateIds, keyIndex.keyId, keyIndex.domainKey);
+            candidates &= keyIndex.matches(predicateId, 0);
+            if (candidates == 0) {
+                return null;
+            }
+        }
+
+        int best = -1;
+        while (candidates != 0) {
+            int index = Long.numberOfTrailingZeros(candidates);
+            if (sameNoOfKeys) {
+                return contexts.get(index);
+            }
+            if (best == -1 || noOfKeys[index] > noOfKeys[best]) {
+                best = index;
+            }
+            candidates &= candidates - 1;
+        }
+        return contexts.get(best);
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static void set(long[] bitset, int index) {
+        bitset[index >>> 6] |= 1L << index;
+    }
+
+    private static final class KeyIndex {
+
+        private final int keyId;
+
+        private final String domainKey;
+
+        private final int[] valueIds;
+
+        private final long[][] valueContexts;
+
+        private final long[] wildcard;
+
+        private KeyIndex(int keyId, String domainKey, int[] valueIds, long[][] valueContexts, long[] wildcard) {
+            this.keyId = keyId;
+            this.domainKey = domainKey;
+            this.valueIds = valueIds;
+            this.valueContexts = valueContexts;
+            this.wildcard = wildcard;
+        }
+
+        private boolean retainMatches(int predicateId, long[] candidates) {
+            long[] matches = valueContexts(predicateId);
+            long remaining = 0;
+            for (int w = 0; w < candidates.length; w++) {
+                candidates[w] &= matches != null ? matches[w] | wildcard[w] : wildcard[w];
+                remaining |= candidates[w];
+            }
+            return remaining != 0;
+        }
+
+        private long matches(int predicateId, int word) {
+            long[] matches = valueContexts(predicateId);
+            return matches != null ? matches[word] | wildcard[word] : wildcard[word];
+        }
+
+        private long[] valueContexts(int predicateId) {
+            int index = predicateId >= 0 ? Arrays.binarySearch(valueIds, predicateId) : -1;
+            return index >= 0 ? valueContexts[index] : null;
+        }
+
+        private static final class Builder {
+
+            private final String domainKey;
+
+            private final int words;
+
+            private final Map<Integer, long[]> valueContexts = new TreeMap<>();
+
+            private final long[] constrained;
+
+            private Builder(String domainKey, int words) {
+                this.domainKey = domainKey;
+                this.words = words;
+                this.constrained = new long[words];
+            }
+
+            private void add(int index, Condition condition) {
+                set(constrained, index);
+                for (int valueId : condition.valueIds()) {
+                    set(valueContexts.computeIfAbsent(valueId, id -> new long[words]), index);
+                }
+            }
+
+            private KeyIndex get(int keyId, long[] allContexts) {
+                int[] valueIds = new int[valueContexts.size()];
+                long[][] contexts = new long[valueContexts.size()][];
+                int i = 0;
+                for (Map.Entry<Integer, long[]> entry : valueContexts.entrySet()) {
+                    valueIds[i] = entry.getKey();
+                    contexts[i] = entry.getValue();
+                    i++;
+                }
+
+                long[] wildcard = new long[words];
+                for (int w = 0; w < words; w++) {
+                    wildcard[w] = allContexts[w] & ~constrained[w];
+                }
+                return new KeyIndex(keyId, domainKey, valueIds, contexts, wildcard);
+            }
+        }
+    }
+}
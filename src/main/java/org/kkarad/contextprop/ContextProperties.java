@@ -1,20 +1,53 @@
 package org.kkarad.contextprop;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentMap;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
-import static java.util.stream.Collectors.toConcurrentMap;
+import static java.util.stream.Collectors.toList;
+import static org.kkarad.contextprop.Assertions.assertState;
 
-public final class ContextProperties {
+public final class ContextProperties extends AbstractContextProperties {
 
-    private final ConcurrentMap<String, ContextProperty> ctxProperties;
+    private final KeyIndex index;
+
+    private final ContextProperty[] groups;
 
     private final ContextPropertyResolver propertyResolver;
 
+    private final ResolutionCache resolutionCache;
+
+    /**
+     * Kept only for incremental updates, otherwise null
+     */
+    private final Map<String, String> entries;
+
+    private final PropertyValidator validator;
+
+    private final LazyPropertyGroups lazyGroups;
+
+    private final int prefixLength;
+
+    private volatile KeyTrie trie;
+
     public static Resolver basedOn(DomainPredicates predicates) {
         return new Resolver(predicates);
     }
@@ -23,60 +56,188 @@ public final class ContextProperties {
         return new Builder(Domain.create(domainClass));
     }
 
-    private ContextProperties(ConcurrentMap<String, ContextProperty> ctxProperties,
-                              ContextPropertyResolver propertyResolver) {
-        this.ctxProperties = ctxProperties;
+    static Builder basedOnDomain(Domain domain) {
+        return new Builder(domain);
+    }
+
+    private ContextProperties(Collection<ContextProperty> contextProperties,
+                              ContextPropertyResolver propertyResolver,
+                              ResolutionCache resolutionCache,
+                              Map<String, String> entries,
+                              PropertyValidator validator,
+                              LazyPropertyGroups lazyGroups) {
+        this.groups = contextProperties.toArray(new ContextProperty[0]);
+        this.index = new KeyIndex(Arrays.stream(groups).map(ContextProperty::key).collect(toList()));
         this.propertyResolver = propertyResolver;
+        this.resolutionCache = resolutionCache;
+        this.entries = entries;
+        this.validator = validator;
+        this.lazyGroups = lazyGroups;
+        this.prefixLength = 0;
+    }
+
+    private ContextProperties(ContextProperties parent, String[] keys, ContextProperty[] groups, int prefixLength) {
+        this.groups = groups;
+        this.index = new KeyIndex(Arrays.asList(keys));
+        this.propertyResolver = parent.propertyResolver;
+        this.resolutionCache = parent.resolutionCache;
+        this.entries = null;
+        this.validator = parent.validator;
+        this.lazyGroups = null;
+        this.prefixLength = prefixLength;
+    }
+
+    public Optional<CacheStats> cacheStats() {
+        return resolutionCache != null ? Optional.of(resolutionCache.stats()) : Optional.empty();
+    }
+
+    public Optional<ResolutionMetricsMXBean> resolutionMetrics() {
+        return Optional.ofNullable(propertyResolver.metrics());
+    }
+
+    /**
+     * Resolves all properties once; prefer it over the {@code resolveX} methods when the predicates are fixed
+     */
+    public TypedProperties resolveTyped(DomainPredicates predicates) {
+        Collection<ContextProperty> contextProperties = contextProperties();
+        Map<String, PropertyValue> resolved = new HashMap<>(capacity(contextProperties.size()));
+        propertyResolver.resolve(contextProperties, predicates, prefixLength == 0
+                ? resolved::put
+                : (key, value) -> resolved.put(key.substring(prefixLength), value));
+        return new TypedProperties(resolved);
+    }
+
+    public TypedProperties resolveTyped(String prefix, DomainPredicates predicates) {
+        return view(prefix).resolveTyped(predicates);
+    }
+
+    /**
+     * Binds the properties onto the accessors of an interface or a record (see {@link TypedProperties#bind(Class)})
+     */
+    public <T> T bind(Class<T> type, DomainPredicates predicates) {
+        return PropertyBinding.of(type).bind(
+                key -> nullableValue(key, predicates),
+                key -> new PropertyNotFoundException(key, predicates));
+    }
+
+    /**
+     * Returns the properties under the prefix with the prefix stripped from their keys, e.g. {@code db.pool.}
+     */
+    public ContextProperties view(String prefix) {
+        KeyIndex keys = lazyGroups != null ? lazyGroups.index() : index;
+        KeyTrie keyTrie = trie;
+        if (keyTrie == null) {
+            keyTrie = new KeyTrie(keys);
+            trie = keyTrie;
+        }
+        int[] ordinals = keyTrie.ordinals(prefix);
+        String[] viewKeys = new String[ordinals.length];
+        ContextProperty[] viewGroups = new ContextProperty[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            String key = keys.key(ordinals[i]);
+            viewKeys[i] = key.substring(prefix.length());
+            viewGroups[i] = lazyGroups != null ? lazyGroups.get(key) : groups[ordinals[i]];
+        }
+        return new ContextProperties(this, viewKeys, viewGroups, prefixLength + prefix.length());
+    }
+
+    public Set<String> keys() {
+        KeyIndex keys = lazyGroups != null ? lazyGroups.index() : index;
+        Set<String> keySet = new HashSet<>(capacity(keys.size()));
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            keySet.add(keys.key(ordinal));
+        }
+        return Collections.unmodifiableSet(keySet);
+    }
+
+    /**
+     * Returns the validation errors of all groups, parsing the lazy groups which are not parsed yet
+     */
+    public List<String> validateAll() {
+        if (lazyGroups != null) {
+            return lazyGroups.errors();
+        }
+        return validator.validateAll(contextProperties()).stream()
+                .map(Error::message)
+                .collect(toList());
+    }
+
+    /**
+     * Resolves against the predicates of the current {@link ScopedPredicates} scope, as do the overloads below
+     */
+    public Optional<String> resolveOptString(String property) {
+        return resolveOptString(property, ScopedPredicates.current());
+    }
+
+    public String resolveString(String property) {
+        return resolveString(property, ScopedPredicates.current());
+    }
+
+    public boolean resolveBoolean(String property, boolean defaultValue) {
+        return resolveBoolean(property, ScopedPredicates.current(), defaultValue);
+    }
+
+    public int resolveInteger(String property, int defaultValue) {
+        return resolveInteger(property, ScopedPredicates.current(), defaultValue);
+    }
+
+    public long resolveLong(String property, long defaultValue) {
+        return resolveLong(property, ScopedPredicates.current(), defaultValue);
     }
 
-    public Optional<String> resolveOptString(String property, DomainPredicates predicates) {
-        return Optional.ofNullable(nullableContextPropertyValue(property, predicates));
+    public double resolveDouble(String property, double defaultValue) {
+        return resolveDouble(property, ScopedPredicates.current(), defaultValue);
     }
 
-    public String resolveString(String property, DomainPredicates predicates) {
-        return contextPropertyValue(property, predicates);
+    public Optional<Boolean> resolveOptBoolean(String property) {
+        return resolveOptBoolean(property, ScopedPredicates.current());
     }
 
-    public Optional<Boolean> resolveOptBoolean(String property, DomainPredicates predicates) {
-        return Optional.ofNullable(nullableContextPropertyValue(property, predicates, TrueFalse::parse));
+    public boolean resolveBoolean(String property) {
+        return resolveBoolean(property, ScopedPredicates.current());
     }
 
-    public boolean resolveBoolean(String property, DomainPredicates predicates) {
-        return contextPropertyValue(property, predicates, TrueFalse::parse);
+    public Optional<Integer> resolveOptInteger(String property) {
+        return resolveOptInteger(property, ScopedPredicates.current());
     }
 
-    public Optional<Integer> resolveOptInteger(String property, DomainPredicates predicates) {
-        return Optional.ofNullable(nullableContextPropertyValue(property, predicates, Integer::valueOf));
+    public int resolveInteger(String property) {
+        return resolveInteger(property, ScopedPredicates.current());
     }
 
-    public int resolveInteger(String property, DomainPredicates predicates) {
-        return contextPropertyValue(property, predicates, Integer::valueOf);
+    public Optional<Long> resolveOptLong(String property) {
+        return resolveOptLong(property, ScopedPredicates.current());
     }
 
-    public Optional<Long> resolveOptLong(String property, DomainPredicates predicates) {
-        return Optional.ofNullable(nullableContextPropertyValue(property, predicates, Long::valueOf));
+    public long resolveLong(String property) {
+        return resolveLong(property, ScopedPredicates.current());
     }
 
-    public long resolveLong(String property, DomainPredicates predicates) {
-        return contextPropertyValue(property, predicates, Long::valueOf);
+    public Optional<Double> resolveOptDouble(String property) {
+        return resolveOptDouble(property, ScopedPredicates.current());
     }
 
-    public Optional<BigDecimal> resolveOptBigDecimal(String property, DomainPredicates predicates) {
-        return Optional.ofNullable(nullableContextPropertyValue(property, predicates, BigDecimal::new));
+    public double resolveDouble(String property) {
+        return resolveDouble(property, ScopedPredicates.current());
     }
 
-    public BigDecimal resolveBigDecimal(String property, DomainPredicates predicates) {
-        return contextPropertyValue(property, predicates, BigDecimal::new);
+    public Optional<BigDecimal> resolveOptBigDecimal(String property) {
+        return resolveOptBigDecimal(property, ScopedPredicates.current());
     }
 
-    private <T> T contextPropertyValue(String property, DomainPredicates predicates, Function<String, T> parseFunction) {
-        return parseFunction.apply(contextPropertyValue(property, predicates));
+    public BigDecimal resolveBigDecimal(String property) {
+        return resolveBigDecimal(property, ScopedPredicates.current());
     }
 
-    private String contextPropertyValue(String property, DomainPredicates predicates) {
+    public <T> T bind(Class<T> type) {
+        return bind(type, ScopedPredicates.current());
+    }
+
+    @Override
+    PropertyValue value(String property, DomainPredicates predicates) {
         ContextProperty contextProperty = contextProperty(property);
-        String value = propertyResolver.resolve(contextProperty, predicates);
-        if (TypedProperties.isNullOrEmpty(value)) {
+        PropertyValue value = resolve(contextProperty, predicates);
+        if (value == null || value.isEmpty()) {
             throw new PropertyNotFoundException(property, predicates);
         }
         return value;
@@ -85,23 +246,67 @@ public final class ContextProperties {
     private ContextProperty contextProperty(String property) {
         ContextProperty contextProperty = nullableContextProperty(property);
         if (contextProperty == null) {
+            onMissingProperty();
             throw new PropertyNotFoundException(property);
         }
         return contextProperty;
     }
 
-    private <T> T nullableContextPropertyValue(String property, DomainPredicates predicates, Function<String, T> parseFunction) {
-        String value = nullableContextPropertyValue(property, predicates);
-        return value != null ? parseFunction.apply(value) : null;
+    @Override
+    PropertyValue nullableValue(String property, DomainPredicates predicates) {
+        ContextProperty contextProperty = nullableContextProperty(property);
+        if (contextProperty == null) {
+            onMissingProperty();
+            return null;
+        }
+        return resolve(contextProperty, predicates);
+    }
+
+    private void onMissingProperty() {
+        ResolutionMetrics metrics = propertyResolver.metrics();
+        if (metrics != null) {
+            metrics.onMissingProperty();
+        }
     }
 
-    private String nullableContextPropertyValue(String property, DomainPredicates predicates) {
-        ContextProperty contextProperty = nullableContextProperty(property);
-        return contextProperty != null ? propertyResolver.resolve(contextProperty, predicates) : null;
+    private PropertyValue resolve(ContextProperty contextProperty, DomainPredicates predicates) {
+        ResolutionMetrics metrics = propertyResolver.metrics();
+        if (metrics == null) {
+            return matchOrCached(contextProperty, predicates);
+        }
+        long start = System.nanoTime();
+        PropertyValue value = matchOrCached(contextProperty, predicates);
+        metrics.onResolution(contextProperty.key(), System.nanoTime() - start);
+        return value;
+    }
+
+    private PropertyValue matchOrCached(ContextProperty contextProperty, DomainPredicates predicates) {
+        return resolutionCache != null
+                ? resolutionCache.resolve(contextProperty, predicates, propertyResolver::resolve)
+                : propertyResolver.resolve(contextProperty, predicates);
     }
 
-    private ContextProperty nullableContextProperty(String property) {
-        return ctxProperties.get(property);
+    ContextProperty nullableContextProperty(String property) {
+        if (lazyGroups != null) {
+            return lazyGroups.get(property);
+        }
+        int ordinal = index.ordinal(property);
+        return ordinal != KeyIndex.NONE ? groups[ordinal] : null;
+    }
+
+    Collection<ContextProperty> contextProperties() {
+        return lazyGroups != null ? lazyGroups.all() : Collections.unmodifiableList(Arrays.asList(groups));
+    }
+
+    private ConditionCodes codes(Domain domain) {
+        if (lazyGroups != null) {
+            return lazyGroups.codes();
+        }
+        return groups.length > 0 ? groups[0].codes() : new ConditionCodes(domain);
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
     }
 
     public static final class Resolver extends AbstractBuilder<Resolver> {
@@ -109,21 +314,56 @@ public final class ContextProperties {
         private final DomainPredicates predicates;
 
         private Resolver(DomainPredicates predicates) {
-            this.predicates = predicates;
+            this.predicates = predicates.copy();
         }
 
         public Properties resolve(Properties ctxProperties) {
+            return resolve(parse(predicates.domain(), ctxProperties));
+        }
+
+        public Properties resolve(Reader ctxProperties) throws IOException {
+            return resolve(parse(predicates.domain(), PropertySource.of(ctxProperties)));
+        }
+
+        public Properties resolve(InputStream ctxProperties) throws IOException {
+            return resolve(parse(predicates.domain(), PropertySource.of(ctxProperties)));
+        }
+
+        public Properties resolve(Path ctxProperties) throws IOException {
+            return resolve(parse(predicates.domain(), PropertySource.of(ctxProperties)));
+        }
+
+        public TypedProperties resolveTyped(Properties ctxProperties) {
+            return resolveTyped(parse(predicates.domain(), ctxProperties));
+        }
+
+        public TypedProperties resolveTyped(Reader ctxProperties) throws IOException {
+            return resolveTyped(parse(predicates.domain(), PropertySource.of(ctxProperties)));
+        }
+
+        public TypedProperties resolveTyped(InputStream ctxProperties) throws IOException {
+            return resolveTyped(parse(predicates.domain(), PropertySource.of(ctxProperties)));
+        }
+
+        public TypedProperties resolveTyped(Path ctxProperties) throws IOException {
+            return resolveTyped(parse(predicates.domain(), PropertySource.of(ctxProperties)));
+        }
+
+        private Properties resolve(Collection<ContextProperty> contextProperties) {
             Properties resolved = new Properties();
-            Collection<ContextProperty> contextProperties = createParser().parse(ctxProperties);
-            PropertyValidator validator = createValidator(predicates.domain());
-            contextProperties.forEach(validator::validate);
-            createResolver().resolve(contextProperties, predicates, resolved);
+            resolve(contextProperties, (key, value) -> resolved.setProperty(key, value.text()));
             return resolved;
         }
 
-        public TypedProperties resolveTyped(Properties ctxProperties) {
-            Properties properties = resolve(ctxProperties);
-            return new TypedProperties(properties);
+        private TypedProperties resolveTyped(Collection<ContextProperty> contextProperties) {
+            Map<String, PropertyValue> resolved = new HashMap<>(capacity(contextProperties.size()));
+            resolve(contextProperties, resolved::put);
+            return new TypedProperties(resolved);
+        }
+
+        private void resolve(Collection<ContextProperty> contextProperties, BiConsumer<String, PropertyValue> resolved) {
+            validate(predicates.domain(), contextProperties);
+            createResolver().resolve(contextProperties, predicates, resolved);
         }
     }
 
@@ -131,20 +371,246 @@ public final class ContextProperties {
 
         private final Domain domain;
 
+        private int cacheSize = 0;
+
+        private CacheEviction cacheEviction = null;
+
+        private long reloadDebounceMillis = 200;
+
+        private Consumer<Exception> reloadErrorConsumer = e -> {
+        };
+
+        private Path snapshotCache = null;
+
+        private boolean lazy = false;
+
+        private boolean incremental = false;
+
         private Builder(Domain domain) {
             this.domain = domain;
         }
 
+        /**
+         * Cached values are not resolved again, so system property overrides are read, and the resolution consumer and
+         * the metrics are called, on the first resolution only
+         */
+        public Builder resolutionCache(int maximumSize, CacheEviction eviction) {
+            this.cacheSize = maximumSize;
+            this.cacheEviction = eviction;
+            return this;
+        }
+
+        /**
+         * The counters are shared by all properties created by this builder, including reloads
+         */
+        public Builder metrics() {
+            if (metrics == null) {
+                metrics = new ResolutionMetrics();
+            }
+            return this;
+        }
+
+        /**
+         * Registers the counters as an MBean, replacing an earlier registration under the same name
+         */
+        public Builder metrics(String objectName) {
+            metrics();
+            ResolutionMetrics.register(metrics, objectName);
+            return this;
+        }
+
+        /**
+         * Records at most {@code eventsPerSecond} context matches per properties as flight recorder events
+         */
+        public Builder resolutionEvents(int eventsPerSecond) {
+            if (eventsPerSecond < 0) {
+                throw new IllegalArgumentException("Events per second cannot be negative: " + eventsPerSecond);
+            }
+            this.resolutionEventsPerSecond = eventsPerSecond;
+            return this;
+        }
+
+        public Builder reloadDebounce(long time, TimeUnit unit) {
+            this.reloadDebounceMillis = unit.toMillis(time);
+            return this;
+        }
+
+        public Builder reloadErrorConsumer(Consumer<Exception> errorConsumer) {
+            this.reloadErrorConsumer = errorConsumer;
+            return this;
+        }
+
+        /**
+         * Parses and validates each property group on its first resolution instead of on creation
+         */
+        public Builder lazy() {
+            this.lazy = true;
+            return this;
+        }
+
+        /**
+         * Keeps the unresolved entries so that updates parse only the changed property groups
+         */
+        public Builder incremental() {
+            this.incremental = true;
+            return this;
+        }
+
+        /**
+         * Loads the properties of a file from the snapshot while it matches the file hash; not with {@link #lazy()}
+         */
+        public Builder snapshotCache(Path snapshot) {
+            this.snapshotCache = snapshot;
+            return this;
+        }
+
+        public void writeMapped(ContextProperties properties, Path mapped) throws IOException {
+            MappedPropertiesWriter.write(mapped, domain, properties.contextProperties());
+        }
+
+        public MappedContextProperties createMapped(Path mapped) throws IOException {
+            return MappedContextProperties.map(mapped, domain, systemPropertyOverride, resolutionLogger);
+        }
+
+        /**
+         * The builder is used by the reloads, so it should not be changed afterwards
+         */
+        public ReloadableContextProperties createReloadable(Path unresolved) throws IOException {
+            return new ReloadableContextProperties(this, unresolved, reloadDebounceMillis, reloadErrorConsumer);
+        }
+
         public ContextProperties create(Properties unresolved) {
-            final PropertyValidator validator = createValidator(domain);
-            ConcurrentMap<String, ContextProperty> propertyMap = createParser()
-                    .parse(unresolved)
-                    .stream()
-                    .map(property -> {
-                        validator.validate(property);
-                        return property;
-                    }).collect(toConcurrentMap(ContextProperty::key, (prop) -> prop));
-            return new ContextProperties(propertyMap, createResolver());
+            if (incremental || lazy) {
+                return create(PropertyParser.toPropertyMap(unresolved), incremental);
+            }
+            return create(parse(domain, unresolved), null);
+        }
+
+        public ContextProperties create(Reader unresolved) throws IOException {
+            return create(PropertySource.of(unresolved), incremental);
+        }
+
+        public ContextProperties create(InputStream unresolved) throws IOException {
+            return create(PropertySource.of(unresolved), incremental);
+        }
+
+        ContextProperties createIncremental(InputStream unresolved) throws IOException {
+            return create(PropertySource.of(unresolved), true);
+        }
+
+        public ContextProperties create(Path unresolved) throws IOException {
+            if (snapshotCache != null) {
+                return createCached(unresolved);
+            }
+            return create(PropertySource.of(unresolved), incremental);
+        }
+
+        /**
+         * Parses again only the property groups with changed entries and shares the rest with the previous properties
+         */
+        public ContextProperties update(ContextProperties previous, Properties unresolved) {
+            return update(previous, PropertyParser.toPropertyMap(unresolved));
+        }
+
+        public ContextProperties update(ContextProperties previous, Reader unresolved) throws IOException {
+            return update(previous, read(PropertySource.of(unresolved)));
+        }
+
+        public ContextProperties update(ContextProperties previous, InputStream unresolved) throws IOException {
+            return update(previous, read(PropertySource.of(unresolved)));
+        }
+
+        public ContextProperties update(ContextProperties previous, Path unresolved) throws IOException {
+            return update(previous, read(PropertySource.of(unresolved)));
+        }
+
+        private ContextProperties create(PropertySource unresolved, boolean keepEntries) throws IOException {
+            if (keepEntries || lazy) {
+                return create(read(unresolved), keepEntries);
+            }
+            return create(parse(domain, unresolved), null);
+        }
+
+        private ContextProperties create(Map<String, String> entries, boolean keepEntries) {
+            if (lazy) {
+                PropertyValidator validator = createValidator(domain);
+                ConditionCodes codes = new ConditionCodes(domain);
+                LazyPropertyGroups lazyGroups = new LazyPropertyGroups(
+                        entries, codes, groupEntries -> parse(codes, groupEntries), validator, this::logErrors);
+                return new ContextProperties(
+                        Collections.emptyList(), createResolver(), createResolutionCache(), null, validator, lazyGroups);
+            }
+            return create(parse(domain, entries), keepEntries ? entries : null);
+        }
+
+        private ContextProperties create(Collection<ContextProperty> contextProperties, Map<String, String> entries) {
+            validate(domain, contextProperties);
+            return new ContextProperties(
+                    contextProperties, createResolver(), createResolutionCache(), entries, createValidator(domain), null);
+        }
+
+        private ContextProperties createCached(Path unresolved) throws IOException {
+            assertState(!lazy, () -> "Lazy properties cannot use a snapshot (snapshot: " + snapshotCache + ")");
+            byte[] source = Files.readAllBytes(unresolved);
+            byte[] sourceHash = PropertySnapshot.hash(source);
+            Collection<ContextProperty> cached = PropertySnapshot.read(snapshotCache, sourceHash, domain);
+            if (cached != null) {
+                validate(domain, cached);
+                return new ContextProperties(
+                        cached, createResolver(), createResolutionCache(), null, createValidator(domain), null);
+            }
+
+            ContextProperties created = create(PropertySource.of(ByteBuffer.wrap(source)), incremental);
+            PropertySnapshot.write(snapshotCache, sourceHash, domain, created.contextProperties());
+            return created;
+        }
+
+        private ContextProperties update(ContextProperties previous, Map<String, String> entries) {
+            if (previous.entries == null || previous.lazyGroups != null || lazy) {
+                return create(entries, true);
+            }
+            ConditionCodes codes = previous.codes(domain);
+            if (codes.isMostlyUnreferenced()) {
+                return create(entries, true);
+            }
+            Set<String> changedKeys = new HashSet<>();
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                if (!entry.getValue().equals(previous.entries.get(entry.getKey()))) {
+                    changedKeys.add(propertyKey(entry.getKey()));
+                }
+            }
+            for (String keyText : previous.entries.keySet()) {
+                if (!entries.containsKey(keyText)) {
+                    changedKeys.add(propertyKey(keyText));
+                }
+            }
+
+            Map<String, String> changedEntries = new LinkedHashMap<>();
+            if (!changedKeys.isEmpty()) {
+                entries.forEach((keyText, value) -> {
+                    if (changedKeys.contains(propertyKey(keyText))) {
+                        changedEntries.put(keyText, value);
+                    }
+                });
+            }
+
+            Collection<ContextProperty> changedProperties = parse(codes, changedEntries);
+            validate(domain, changedProperties);
+            Map<String, ContextProperty> propertyMap = new LinkedHashMap<>(capacity(previous.groups.length));
+            for (ContextProperty property : previous.groups) {
+                if (!changedKeys.contains(property.key())) {
+                    propertyMap.put(property.key(), property);
+                } else {
+                    codes.release(property);
+                }
+            }
+            changedProperties.forEach(property -> propertyMap.put(property.key(), property));
+            return new ContextProperties(
+                    propertyMap.values(), createResolver(), createResolutionCache(), entries, createValidator(domain), null);
+        }
+
+        private ResolutionCache createResolutionCache() {
+            return cacheEviction != null ? ResolutionCache.create(cacheSize, cacheEviction) : null;
         }
     }
 
@@ -9,12 +9,23 @@ final class ContextProperty {
 
     private final List<Context> contexts;
 
-    private final String defaultValue;
+    private final PropertyValue defaultValue;
 
-    private ContextProperty(String key, List<Context> contexts, String defaultValue) {
+    private final ConditionCodes codes;
+
+    private final ContextIndex contextIndex;
+
+    /**
+     * Guarded by the dictionary
+     */
+    private boolean released = false;
+
+    private ContextProperty(String key, List<Context> contexts, PropertyValue defaultValue, ConditionCodes codes) {
         this.key = key;
         this.contexts = contexts;
         this.defaultValue = defaultValue;
+        this.codes = codes;
+        this.contextIndex = ContextIndex.create(contexts);
     }
 
     public String key() {
@@ -26,9 +37,29 @@ final class ContextProperty {
     }
 
     String defaultValue() {
+        return defaultValue != null ? defaultValue.text() : null;
+    }
+
+    PropertyValue defaultPropertyValue() {
         return defaultValue;
     }
 
+    ConditionCodes codes() {
+        return codes;
+    }
+
+    boolean release() {
+        if (released) {
+            return false;
+        }
+        released = true;
+        return true;
+    }
+
+    ContextIndex contextIndex() {
+        return contextIndex;
+    }
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder();
@@ -48,16 +79,23 @@ final class ContextProperty {
 
         private final String key;
 
+        private final ConditionCodes codes;
+
         private String defaultValue = null;
 
         private List<Context> contexts = new ArrayList<>();
 
         static Builder contextProperty(String key) {
-            return new Builder(key);
+            return new Builder(key, new ConditionCodes());
         }
 
-        private Builder(String key) {
+        static Builder contextProperty(String key, ConditionCodes codes) {
+            return new Builder(key, codes);
+        }
+
+        private Builder(String key, ConditionCodes codes) {
             this.key = key;
+            this.codes = codes;
         }
 
         Builder add(Context context) {
@@ -65,13 +103,25 @@ final class ContextProperty {
             return this;
         }
 
+        Builder addAll(Builder that) {
+            contexts.addAll(that.contexts);
+            if (that.defaultValue != null) {
+                defaultValue = that.defaultValue;
+            }
+            return this;
+        }
+
         Builder defaultValue(String value) {
             this.defaultValue = value;
             return this;
         }
 
         ContextProperty get() {
-            return new ContextProperty(key, contexts, defaultValue);
+            List<Context> encoded = new ArrayList<>(contexts.size());
+            for (Context context : contexts) {
+                encoded.add(context.encode(codes));
+            }
+            return new ContextProperty(key, encoded, defaultValue != null ? new PropertyValue(defaultValue) : null, codes);
         }
     }
 }
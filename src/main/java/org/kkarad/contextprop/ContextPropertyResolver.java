@@ -2,10 +2,10 @@ package org.kkarad.contextprop;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Properties;
-import java.util.function.Consumer;
-
-import static java.lang.String.format;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
 class ContextPropertyResolver {
 
@@ -13,50 +13,129 @@ class ContextPropertyResolver {
 
     private final boolean systemPropertyOverride;
 
-    private final Consumer<String> debugMsgResolver;
+    private final DebugLog debugResolver;
 
     private final ResolutionConsumer resolutionLogger;
 
+    private final ForkJoinPool pool;
+
+    private final ResolutionMetrics metrics;
+
+    /**
+     * The value of the last system property override per property key, reused while the system property is unchanged
+     */
+    private final ConcurrentHashMap<String, PropertyValue> systemValues = new ConcurrentHashMap<>();
+
     ContextPropertyResolver(PropertyResolver resolver,
                             boolean systemPropertyOverride,
-                            Consumer<String> debugMsgResolver,
+                            DebugLog debugResolver,
                             ResolutionConsumer resolutionLogger) {
+        this(resolver, systemPropertyOverride, debugResolver, resolutionLogger, null, null);
+    }
+
+    ContextPropertyResolver(PropertyResolver resolver,
+                            boolean systemPropertyOverride,
+                            DebugLog debugResolver,
+                            ResolutionConsumer resolutionLogger,
+                            ForkJoinPool pool,
+                            ResolutionMetrics metrics) {
         this.resolver = resolver;
         this.systemPropertyOverride = systemPropertyOverride;
-        this.debugMsgResolver = debugMsgResolver;
+        this.debugResolver = debugResolver;
         this.resolutionLogger = resolutionLogger;
+        this.pool = pool;
+        this.metrics = metrics;
+    }
+
+    ResolutionMetrics metrics() {
+        return metrics;
+    }
+
+    void resolve(Collection<ContextProperty> contextualisedProperties,
+                 DomainPredicates predicates,
+                 BiConsumer<String, PropertyValue> resolved) {
+        Object event = FlightRecorderEvents.beginPhase();
+        if (pool != null) {
+            resolveParallel(contextualisedProperties.toArray(new ContextProperty[0]), predicates, resolved);
+        } else {
+            Iterator<ContextProperty> iterator = contextualisedProperties.iterator();
+            while (iterator.hasNext()) {
+                ContextProperty property = iterator.next();
+                PropertyValue value = resolve(property, predicates, !iterator.hasNext());
+                if (value != null) {
+                    resolved.accept(property.key(), value);
+                }
+            }
+        }
+        FlightRecorderEvents.endPhase(event, FlightRecorderEvents.RESOLVE, contextualisedProperties.size());
     }
 
-    void resolve(Collection<ContextProperty> contextualisedProperties, DomainPredicates predicates, Properties resolved) {
-        Iterator<ContextProperty> iterator = contextualisedProperties.iterator();
-        while (iterator.hasNext()) {
-            ContextProperty property = iterator.next();
-            String value = resolve(property, predicates, !iterator.hasNext());
+    /**
+     * The overrides, debug messages and resolution consumer are applied in order on the calling thread
+     */
+    private void resolveParallel(ContextProperty[] properties,
+                                 DomainPredicates predicates,
+                                 BiConsumer<String, PropertyValue> resolved) {
+        String[] systemValues = new String[properties.length];
+        PropertyValue[] matched = new PropertyValue[properties.length];
+        pool.submit(() -> IntStream.range(0, properties.length).parallel().forEach(i -> {
+            systemValues[i] = systemValue(properties[i]);
+            if (systemValues[i] == null) {
+                matched[i] = resolver.resolve(properties[i], predicates);
+            }
+        })).join();
+
+        for (int i = 0; i < properties.length; i++) {
+            debugResolver.log("ContextPropertyResolver.resolve -> starting '%s'", properties[i].key());
+            PropertyValue value = resolve(properties[i], systemValues[i], matched[i], i == properties.length - 1);
             if (value != null) {
-                resolved.setProperty(property.key(), value);
+                resolved.accept(properties[i].key(), value);
             }
         }
     }
 
-    String resolve(ContextProperty property, DomainPredicates predicates) {
+    PropertyValue resolve(ContextProperty property, DomainPredicates predicates) {
         return resolve(property, predicates, true);
     }
 
-    private String resolve(ContextProperty property, DomainPredicates predicates, boolean isLast) {
-        debugMsgResolver.accept(format("ContextPropertyResolver.resolve -> starting '%s'", property.key()));
-        String value = systemPropertyOverride ? System.getProperty(property.key()) : null;
+    private PropertyValue resolve(ContextProperty property, DomainPredicates predicates, boolean isLast) {
+        debugResolver.log("ContextPropertyResolver.resolve -> starting '%s'", property.key());
+        String systemValue = systemValue(property);
+        return resolve(property, systemValue, systemValue == null ? resolver.resolve(property, predicates) : null, isLast);
+    }
+
+    private String systemValue(ContextProperty property) {
+        String systemValue = systemPropertyOverride ? System.getProperty(property.key()) : null;
+        return systemValue != null && !systemValue.isEmpty() ? systemValue : null;
+    }
+
+    private PropertyValue systemPropertyValue(String key, String systemValue) {
+        PropertyValue value = systemValues.get(key);
+        if (value == null || !value.text().equals(systemValue)) {
+            value = new PropertyValue(systemValue);
+            systemValues.put(key, value);
+        }
+        return value;
+    }
+
+    private PropertyValue resolve(ContextProperty property, String systemValue, PropertyValue matched, boolean isLast) {
         final boolean overridden;
-        if (value != null && !value.isEmpty()) {
+        final PropertyValue value;
+        if (systemValue != null) {
             overridden = true;
-            debugMsgResolver.accept(format("ContextPropertyResolver.resolve -> system property for '%s' exists. Value resolved to '%s'",
-                    property.key(), value));
+            value = systemPropertyValue(property.key(), systemValue);
+            if (metrics != null) {
+                metrics.onSystemOverride();
+            }
+            debugResolver.log("ContextPropertyResolver.resolve -> system property for '%s' exists. Value resolved to '%s'",
+                    property.key(), value);
         } else {
             overridden = false;
-            value = resolver.resolve(property, predicates);
+            value = matched;
         }
 
-        debugMsgResolver.accept(format("ContextPropertyResolver.resolve -> finished '%s'", property.key()));
-        resolutionLogger.onResolution(property.key(), overridden, value, isLast);
+        debugResolver.log("ContextPropertyResolver.resolve -> finished '%s'", property.key());
+        resolutionLogger.onResolution(property.key(), overridden, value != null ? value.text() : null, isLast);
         return value;
     }
 }
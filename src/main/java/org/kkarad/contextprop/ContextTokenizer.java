@@ -0,0 +1,182 @@
+package org.kkarad.contextprop;
+
+//                 0         1         2         3
+//                 0123456789012345678901234567890123
+//my.prop.key.CTXT(env[uat],loc[ldn],group[internal])
+
+/**
+ * Tokenizer of well formed keys; other keys are left to {@link ContextPattern}, which reports the error
+ */
+final class ContextTokenizer {
+
+    private final String contextIdentifier;
+
+    private final String misspeltIdentifierPrefix;
+
+    private final String misspeltIdentifierSuffix;
+
+    private final char startOfContext;
+
+    private final char endOfContext;
+
+    private final char startOfValues;
+
+    private final char endOfValues;
+
+    private final char valueDelimiter;
+
+    private final char conditionDelimiter;
+
+    private final ParseVisitor visitor;
+
+    private int[] conditions = new int[3 * 8];
+
+    ContextTokenizer(String contextIdentifier,
+                     char startOfContext,
+                     char endOfContext,
+                     char startOfValues,
+                     char endOfValues,
+                     char valueDelimiter,
+                     char conditionDelimiter,
+                     ParseVisitor visitor) {
+        this.contextIdentifier = contextIdentifier;
+        this.misspeltIdentifierPrefix = contextIdentifier.substring(0, contextIdentifier.length() - 1);
+        this.misspeltIdentifierSuffix = contextIdentifier.substring(2);
+        this.startOfContext = startOfContext;
+        this.endOfContext = endOfContext;
+        this.startOfValues = startOfValues;
+        this.endOfValues = endOfValues;
+        this.valueDelimiter = valueDelimiter;
+        this.conditionDelimiter = conditionDelimiter;
+        this.visitor = visitor;
+    }
+
+    boolean tokenize(String keyText, String value) {
+        int identifier = keyText.indexOf(contextIdentifier);
+        if (identifier < 0) {
+            if (isMisspelt(keyText)) {
+                return false;
+            }
+            visitor.startProperty(keyText);
+            visitor.endProperty(keyText, value);
+            return true;
+        }
+
+        int start = identifier + contextIdentifier.length();
+        int end = keyText.length() - 1;
+        if (identifier == 0 || start >= end || keyText.charAt(start) != startOfContext
+                || keyText.indexOf(endOfContext, start + 1) != end) {
+            return false;
+        }
+
+        int noOfConditions = scanConditions(keyText, start + 1, end);
+        if (noOfConditions == 0) {
+            return false;
+        }
+
+        String propertyKey = keyText.substring(0, identifier);
+        visitor.startProperty(propertyKey);
+        for (int i = 0; i < noOfConditions; i++) {
+            int conditionStart = conditions[3 * i];
+            int valuesStart = conditions[3 * i + 1];
+            int valuesEnd = conditions[3 * i + 2];
+            visitor.propertyCondition(propertyKey,
+                    keyText.substring(conditionStart, valuesStart - 1),
+                    values(keyText, valuesStart, valuesEnd));
+        }
+        visitor.endProperty(propertyKey, value);
+        return true;
+    }
+
+    private boolean isMisspelt(String keyText) {
+        return keyText.contains(misspeltIdentifierSuffix) ||
+                keyText.contains(misspeltIdentifierPrefix) ||
+                (keyText.indexOf(startOfContext) >= 0 && keyText.indexOf(endOfContext) >= 0);
+    }
+
+    private int scanConditions(String keyText, int from, int to) {
+        int noOfConditions = 0;
+        int position = from;
+        while (true) {
+            int valuesStart = keyText.indexOf(startOfValues, position) + 1;
+            if (valuesStart <= position + 1 || valuesStart > to) {
+                return 0;
+            }
+            int valuesEnd = keyText.indexOf(endOfValues, valuesStart);
+            if (valuesEnd <= valuesStart || valuesEnd >= to || indexOf(keyText, endOfValues, position, valuesStart)
+                    || indexOf(keyText, startOfValues, valuesStart, valuesEnd)
+                    || !hasValidValues(keyText, valuesStart, valuesEnd)) {
+                return 0;
+            }
+
+            if (conditions.length < 3 * (noOfConditions + 1)) {
+                int[] grown = new int[conditions.length * 2];
+                System.arraycopy(conditions, 0, grown, 0, conditions.length);
+                conditions = grown;
+            }
+            conditions[3 * noOfConditions] = position;
+            conditions[3 * noOfConditions + 1] = valuesStart;
+            conditions[3 * noOfConditions + 2] = valuesEnd;
+            noOfConditions++;
+
+            if (valuesEnd + 1 == to) {
+                return noOfConditions;
+            }
+            if (keyText.charAt(valuesEnd + 1) != conditionDelimiter) {
+                return 0;
+            }
+            position = valuesEnd + 2;
+        }
+    }
+
+    private static boolean indexOf(String text, char character, int from, int to) {
+        int index = text.indexOf(character, from);
+        return index >= 0 && index < to;
+    }
+
+    /**
+     * Split like {@code String.split}: trailing empty values are dropped
+     */
+    private boolean hasValidValues(String keyText, int from, int to) {
+        int end = nonEmptyValuesEnd(keyText, from, to);
+        if (end > from && keyText.charAt(from) == valueDelimiter) {
+            return false;
+        }
+        for (int i = from + 1; i < end; i++) {
+            if (keyText.charAt(i) == valueDelimiter && keyText.charAt(i - 1) == valueDelimiter) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String[] values(String keyText, int from, int to) {
+        int end = nonEmptyValuesEnd(keyText, from, to);
+        int noOfValues = end > from ? 1 : 0;
+        for (int i = from; i < end; i++) {
+            if (keyText.charAt(i) == valueDelimiter) {
+                noOfValues++;
+            }
+        }
+
+        String[] values = new String[noOfValues];
+        int position = from;
+        for (int i = 0; i < noOfValues; i++) {
+            int delimiter = keyText.indexOf(valueDelimiter, position);
+            if (delimiter < 0 || delimiter > end) {
+                delimiter = end;
+            }
+            values[i] = keyText.substring(position, delimiter);
+            position = delimiter + 1;
+        }
+        return values;
+    }
+
+    private int nonEmptyValuesEnd(String keyText, int from, int to) {
+        int end = to;
+        while (end > from && keyText.charAt(end - 1) == valueDelimiter) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -6,14 +6,39 @@ import static java.lang.String.format;
 
 class ContextVisitor implements ParseVisitor {
 
-    private final Map<String, ContextProperty.Builder> propertyMap = new HashMap<>();
+    private final Map<String, ContextProperty.Builder> propertyMap = new LinkedHashMap<>();
 
     private final Map<String, Context.Builder> currentContexts = new HashMap<>();
 
+    private final Domain domain;
+
+    private final ConditionCodes sharedCodes;
+
+    private ConditionCodes codes;
+
+    ContextVisitor() {
+        this((Domain) null);
+    }
+
+    ContextVisitor(Domain domain) {
+        this.domain = domain;
+        this.sharedCodes = null;
+    }
+
+    ContextVisitor(ConditionCodes codes) {
+        this.domain = null;
+        this.sharedCodes = codes;
+    }
+
     @Override
     public void startParse() {
         propertyMap.clear();
         currentContexts.clear();
+        if (sharedCodes != null) {
+            codes = sharedCodes;
+        } else {
+            codes = domain != null ? new ConditionCodes(domain) : new ConditionCodes();
+        }
     }
 
     @Override
@@ -44,7 +69,8 @@ class ContextVisitor implements ParseVisitor {
 
     @Override
     public void endProperty(String key, String value) {
-        ContextProperty.Builder builder = propertyMap.computeIfAbsent(key, ContextProperty.Builder::contextProperty);
+        ContextProperty.Builder builder = propertyMap.computeIfAbsent(key,
+                propertyKey -> ContextProperty.Builder.contextProperty(propertyKey, codes));
         Context.Builder current = currentContexts.get(key);
 
         if (current.isEmpty()) {
@@ -60,6 +86,14 @@ class ContextVisitor implements ParseVisitor {
         //validate
     }
 
+    void merge(ContextVisitor that) {
+        for (Map.Entry<String, ContextProperty.Builder> entry : that.propertyMap.entrySet()) {
+            propertyMap.computeIfAbsent(entry.getKey(),
+                    propertyKey -> ContextProperty.Builder.contextProperty(propertyKey, codes))
+                    .addAll(entry.getValue());
+        }
+    }
+
     @Override
     public Collection<ContextProperty> properties() {
         List<ContextProperty> properties = new ArrayList<>();
@@ -0,0 +1,48 @@
+package org.kkarad.contextprop;
+
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+final class DebugLog {
+
+    static final DebugLog DISABLED = new DebugLog(null);
+
+    private final Consumer<String> consumer;
+
+    static DebugLog of(Consumer<String> consumer) {
+        return consumer != null ? new DebugLog(consumer) : DISABLED;
+    }
+
+    private DebugLog(Consumer<String> consumer) {
+        this.consumer = consumer;
+    }
+
+    boolean isEnabled() {
+        return consumer != null;
+    }
+
+    void log(String message) {
+        if (consumer != null) {
+            consumer.accept(message);
+        }
+    }
+
+    void log(String message, Object arg) {
+        if (consumer != null) {
+            consumer.accept(format(message, arg));
+        }
+    }
+
+    void log(String message, Object arg1, Object arg2) {
+        if (consumer != null) {
+            consumer.accept(format(message, arg1, arg2));
+        }
+    }
+
+    void log(String message, Object arg1, Object arg2, Object arg3) {
+        if (consumer != null) {
+            consumer.accept(format(message, arg1, arg2, arg3));
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.kkarad.contextprop;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.Arrays.stream;
@@ -10,12 +13,21 @@ final class Domain {
 
     private final List<String> orderedKeys;
 
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
     static <E extends Enum> Domain create(Class<E> domainClass) {
         return new Domain(toOrderedList(domainClass));
     }
 
+    static Domain create(List<String> orderedKeys) {
+        return new Domain(unmodifiableList(new ArrayList<>(orderedKeys)));
+    }
+
     private Domain(List<String> orderedKeys) {
         this.orderedKeys = orderedKeys;
+        for (String key : orderedKeys) {
+            ordinals.put(key, ordinals.size());
+        }
     }
 
     private static <E extends Enum> List<String> toOrderedList(Class<E> keys) {
@@ -25,14 +37,36 @@ final class Domain {
     }
 
     boolean contains(String key) {
-        return orderedKeys.contains(key);
+        return ordinals.containsKey(key);
     }
 
+    int ordinal(String key) {
+        Integer ordinal = ordinals.get(key);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    int ordinal(Enum<?> key) {
+        int ordinal = key.ordinal();
+        return ordinal < orderedKeys.size() && orderedKeys.get(ordinal).equals(key.name()) ? ordinal : -1;
+    }
 
     int numberOfKeys() {
         return orderedKeys.size();
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Domain that = (Domain) o;
+        return orderedKeys.equals(that.orderedKeys);
+    }
+
+    @Override
+    public int hashCode() {
+        return orderedKeys.hashCode();
+    }
+
     @Override
     public String toString() {
         return orderedKeys.toString();
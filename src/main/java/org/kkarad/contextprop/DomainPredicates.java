@@ -1,33 +1,42 @@
 package org.kkarad.contextprop;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.StringJoiner;
 
 import static java.lang.String.format;
-import static java.util.Arrays.stream;
-import static java.util.Collections.unmodifiableList;
 
 public final class DomainPredicates {
 
+    private static final int ENCODINGS = 4;
+
     private final Domain domain;
 
-    private final Map<String, String> predicates;
+    private final String[] values;
+
+    private final boolean reusable;
+
+    private int hashCode;
+
+    private int version;
+
+    private volatile ConditionCodes.Encoding[] encodings = new ConditionCodes.Encoding[0];
+
+    private volatile MappedContextProperties.Encoding[] mappedEncodings = new MappedContextProperties.Encoding[0];
 
     public static <E extends Enum> Builder basedOnDomain(Class<E> domainClass) {
         return new Builder(Domain.create(domainClass));
     }
 
-    private static <E extends Enum> List<String> toOrderedList(Class<E> keys) {
-        return unmodifiableList(stream(keys.getEnumConstants())
-                .map(Enum::name)
-                .collect(Collectors.toList()));
+    private DomainPredicates(Domain domain, String[] values, boolean reusable) {
+        this.domain = domain;
+        this.values = values;
+        this.reusable = reusable;
+        this.hashCode = hashCode(domain, values);
     }
 
-    private DomainPredicates(Domain domain, Map<String, String> predicates) {
-        this.domain = domain;
-        this.predicates = predicates;
+    private static int hashCode(Domain domain, String[] values) {
+        return 31 * domain.hashCode() + Arrays.hashCode(values);
     }
 
     Domain domain() {
@@ -35,7 +44,144 @@ public final class DomainPredicates {
     }
 
     String value(String key) {
-        return predicates.get(key);
+        int ordinal = domain.ordinal(key);
+        return ordinal >= 0 ? values[ordinal] : null;
+    }
+
+    String value(int ordinal) {
+        return values[ordinal];
+    }
+
+    int version() {
+        return version;
+    }
+
+    boolean isReusable() {
+        return reusable;
+    }
+
+    DomainPredicates copy() {
+        return reusable ? new DomainPredicates(domain, values.clone(), false) : this;
+    }
+
+    public DomainPredicates set(Enum<?> key, String value) {
+        return set(domain.ordinal(key), key.name(), value);
+    }
+
+    public DomainPredicates set(String key, String value) {
+        return set(domain.ordinal(key), key, value);
+    }
+
+    private DomainPredicates set(int ordinal, String key, String value) {
+        if (!reusable) {
+            throw new IllegalStateException(format("Predicates are not reusable (predicates: %s)", this));
+        }
+        if (ordinal < 0) {
+            throw new IllegalArgumentException(format("Predicate: %s can't be found in domain (%s)", key, domain));
+        }
+        if (value == null) {
+            throw new IllegalArgumentException(format("Predicate: %s can't be set to null", key));
+        }
+        if (!value.equals(values[ordinal])) {
+            values[ordinal] = value;
+            hashCode = hashCode(domain, values);
+            version++;
+        }
+        return this;
+    }
+
+    /**
+     * The encodings of the last few dictionaries, and of the last few mapped properties, are kept
+     */
+    int[] valueIds(ConditionCodes codes) {
+        ConditionCodes.Encoding[] memo = encodings;
+        int slot = -1;
+        for (int i = 0; i < memo.length; i++) {
+            if (memo[i].isFor(codes)) {
+                if (memo[i].isCodedBy(codes) && memo[i].version() == version) {
+                    return memo[i].valueIds();
+                }
+                slot = i;
+                break;
+            }
+        }
+
+        ConditionCodes.Encoding reuse = reusable && slot >= 0 ? memo[slot] : null;
+        ConditionCodes.Encoding encoding = codes.encode(this, reuse);
+        if (encoding != reuse) {
+            encodings = memoize(memo, slot, encoding);
+        }
+        return encoding.valueIds();
+    }
+
+    int[] valueIds(MappedContextProperties properties) {
+        MappedContextProperties.Encoding[] memo = mappedEncodings;
+        int slot = -1;
+        for (int i = 0; i < memo.length; i++) {
+            if (memo[i].isCodedBy(properties)) {
+                if (memo[i].version() == version) {
+                    return memo[i].valueIds();
+                }
+                slot = i;
+                break;
+            }
+        }
+
+        MappedContextProperties.Encoding reuse = reusable && slot >= 0 ? memo[slot] : null;
+        MappedContextProperties.Encoding encoding = properties.encode(this, reuse);
+        if (encoding != reuse) {
+            mappedEncodings = memoize(memo, slot, encoding);
+        }
+        return encoding.valueIds();
+    }
+
+    /**
+     * Replaces the encoding in the slot, or appends it and drops the oldest encoding when all are taken
+     */
+    private static <E> E[] memoize(E[] memo, int slot, E encoding) {
+        E[] updated;
+        if (slot >= 0) {
+            updated = memo.clone();
+            updated[slot] = encoding;
+        } else if (memo.length < ENCODINGS) {
+            updated = Arrays.copyOf(memo, memo.length + 1);
+            updated[memo.length] = encoding;
+        } else {
+            updated = Arrays.copyOf(memo, ENCODINGS);
+            System.arraycopy(memo, 1, updated, 0, ENCODINGS - 1);
+            updated[ENCODINGS - 1] = encoding;
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DomainPredicates that = (DomainPredicates) o;
+        return hashCode == that.hashCode &&
+                domain.equals(that.domain) &&
+                Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return toString(domain.orderedKeys(), values);
+    }
+
+    private static String toString(List<String> keys, String[] values) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                joiner.add(keys.get(i) + "=" + values[i]);
+            }
+        }
+        return joiner.toString();
     }
 
 
@@ -43,33 +189,76 @@ public final class DomainPredicates {
 
         private final Domain domain;
 
-        private final HashMap<String, String> predicates = new HashMap<>();
+        private final String[] values;
+
+        private final boolean[] assigned;
+
+        private int noOfAssigned = 0;
 
 
         private Builder(Domain domain) {
             this.domain = domain;
+            this.values = new String[domain.numberOfKeys()];
+            this.assigned = new boolean[values.length];
         }
 
         public Builder predicate(String key, String value) {
-            if (!domain.contains(key)) {
+            return predicate(domain.ordinal(key), key, value);
+        }
+
+        public Builder predicate(Enum<?> key, String value) {
+            return predicate(domain.ordinal(key), key.name(), value);
+        }
+
+        private Builder predicate(int ordinal, String key, String value) {
+            if (ordinal < 0) {
                 throw new IllegalArgumentException(format("Predicate: %s can't be found in domain (%s)", key, domain));
             }
-            predicates.put(key, value);
+            if (!assigned[ordinal]) {
+                assigned[ordinal] = true;
+                noOfAssigned++;
+            }
+            values[ordinal] = value;
             return this;
         }
 
         public DomainPredicates create() {
-            if (predicates.size() != domain.numberOfKeys()) {
+            checkComplete();
+            return new DomainPredicates(domain, values.clone(), false);
+        }
+
+        /**
+         * Predicates which can be set in place per request; they must not be shared between threads
+         */
+        public DomainPredicates createReusable() {
+            checkComplete();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    String msg = format("Reusable predicates can't have null values (predicate: %s)",
+                            domain.orderedKeys().get(i));
+                    throw new IllegalArgumentException(msg);
+                }
+            }
+            return new DomainPredicates(domain, values.clone(), true);
+        }
+
+        private void checkComplete() {
+            if (noOfAssigned != values.length) {
+                StringJoiner keys = new StringJoiner(", ", "[", "]");
+                for (int i = 0; i < values.length; i++) {
+                    if (assigned[i]) {
+                        keys.add(domain.orderedKeys().get(i));
+                    }
+                }
                 String msg = format("Predicates don't cover all domain keys (predicates: %s, domain: %s)",
-                        predicates.keySet(), domain);
+                        keys, domain);
                 throw new IllegalArgumentException(msg);
             }
-            return new DomainPredicates(domain, predicates);
         }
 
         @Override
         public String toString() {
-            return predicates.toString();
+            return DomainPredicates.toString(domain.orderedKeys(), values);
         }
     }
 }
@@ -0,0 +1,55 @@
+package org.kkarad.contextprop;
+
+/**
+ * Flight recorder events, no-ops when the runtime has no {@code jdk.jfr} module
+ */
+final class FlightRecorderEvents {
+
+    static final String SOURCE_READ = "source read";
+
+    static final String PARSE = "parse";
+
+    static final String VALIDATE = "validate";
+
+    static final String RESOLVE = "resolve";
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private FlightRecorderEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static Object beginPhase() {
+        return AVAILABLE ? JfrEvents.beginPhase() : null;
+    }
+
+    static void endPhase(Object event, String phase, int keyCount) {
+        if (event != null) {
+            JfrEvents.endPhase(event, phase, keyCount);
+        }
+    }
+
+    static Object beginResolution() {
+        return AVAILABLE ? JfrEvents.beginResolution() : null;
+    }
+
+    static void endResolution(Object event,
+                              String property,
+                              int scannedContexts,
+                              int matchingContexts,
+                              boolean indexed,
+                              Context context) {
+        if (event != null) {
+            JfrEvents.endResolution(event, property, scannedContexts, matchingContexts, indexed,
+                    context != null ? context.conditions().toString() : null);
+        }
+    }
+}
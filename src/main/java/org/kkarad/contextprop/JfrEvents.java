@@ -0,0 +1,103 @@
+package org.kkarad.contextprop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Only referenced through {@link FlightRecorderEvents}, as {@code jdk.jfr} may be missing
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    static Object beginPhase() {
+        LoadPhase event = new LoadPhase();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endPhase(Object started, String phase, int keyCount) {
+        LoadPhase event = (LoadPhase) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.keyCount = keyCount;
+            event.commit();
+        }
+    }
+
+    static Object beginResolution() {
+        Resolution event = new Resolution();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endResolution(Object started,
+                              String property,
+                              int scannedContexts,
+                              int matchingContexts,
+                              boolean indexed,
+                              String context) {
+        Resolution event = (Resolution) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.property = property;
+            event.scannedContexts = scannedContexts;
+            event.matchingContexts = matchingContexts;
+            event.indexed = indexed;
+            event.context = context;
+            event.commit();
+        }
+    }
+
+    @Name("org.kkarad.contextprop.LoadPhase")
+    @Label("Context Properties Load Phase")
+    @Description("Reading, parsing, validation or resolution of context properties")
+    @Category("Context Properties")
+    static final class LoadPhase extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Key Count")
+        @Description("Entries read or parsed, or property groups validated or resolved")
+        int keyCount;
+    }
+
+    @Name("org.kkarad.contextprop.Resolution")
+    @Label("Context Property Resolution")
+    @Description("Context match of a property; the matches are recorded at a limited rate")
+    @Category("Context Properties")
+    @StackTrace(false)
+    static final class Resolution extends Event {
+
+        @Label("Property")
+        String property;
+
+        @Label("Scanned Contexts")
+        @Description("Contexts examined by the match: all contexts of the group, or those left by its index")
+        int scannedContexts;
+
+        @Label("Matching Contexts")
+        @Description("Contexts of which all conditions match the predicates; the one with the most keys is resolved")
+        int matchingContexts;
+
+        @Label("Indexed")
+        boolean indexed;
+
+        @Label("Context")
+        @Description("Conditions of the matched context, or null when the default value was resolved")
+        String context;
+    }
+}
@@ -0,0 +1,66 @@
+package org.kkarad.contextprop;
+
+import java.util.Collection;
+
+/**
+ * Open addressing index of keys to their ordinals
+ */
+final class KeyIndex {
+
+    static final int NONE = -1;
+
+    private final String[] keys;
+
+    private final int[] hashes;
+
+    private final int[] table;
+
+    private final int mask;
+
+    KeyIndex(Collection<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        this.hashes = new int[this.keys.length];
+        this.table = new int[tableSize(this.keys.length)];
+        this.mask = table.length - 1;
+        for (int ordinal = 0; ordinal < this.keys.length; ordinal++) {
+            int hash = hash(this.keys[ordinal]);
+            hashes[ordinal] = hash;
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = ordinal + 1;
+        }
+    }
+
+    private static int tableSize(int size) {
+        return Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    int ordinal(String key) {
+        int hash = hash(key);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return NONE;
+            }
+            int ordinal = entry - 1;
+            if (hashes[ordinal] == hash && keys[ordinal].equals(key)) {
+                return ordinal;
+            }
+        }
+    }
+
+    String key(int ordinal) {
+        return keys[ordinal];
+    }
+
+    int size() {
+        return keys.length;
+    }
+}
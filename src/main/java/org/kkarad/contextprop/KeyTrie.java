@@ -0,0 +1,108 @@
+package org.kkarad.contextprop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Radix trie of the keys of a {@link KeyIndex}; the keys under a node are a contiguous range of the sorted ordinals
+ */
+final class KeyTrie {
+
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private final int[] sorted;
+
+    private final Node root;
+
+    KeyTrie(KeyIndex index) {
+        this.sorted = IntStream.range(0, index.size())
+                .boxed()
+                .sorted(Comparator.comparing(index::key))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        String[] keys = new String[sorted.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = index.key(sorted[i]);
+        }
+        this.root = keys.length > 0 ? node(keys, 0, keys.length, 0) : null;
+    }
+
+    private static Node node(String[] keys, int start, int end, int from) {
+        String first = keys[start];
+        String last = keys[end - 1];
+        int to = from;
+        while (to < first.length() && to < last.length() && first.charAt(to) == last.charAt(to)) {
+            to++;
+        }
+
+        List<Node> children = new ArrayList<>();
+        int childStart = first.length() == to ? start + 1 : start;
+        while (childStart < end) {
+            char c = keys[childStart].charAt(to);
+            int childEnd = childStart + 1;
+            while (childEnd < end && keys[childEnd].charAt(to) == c) {
+                childEnd++;
+            }
+            children.add(node(keys, childStart, childEnd, to));
+            childStart = childEnd;
+        }
+
+        char[] childChars = new char[children.size()];
+        for (int i = 0; i < childChars.length; i++) {
+            childChars[i] = keys[children.get(i).start].charAt(to);
+        }
+        return new Node(first, from, to, start, end, childChars, children.toArray(new Node[0]));
+    }
+
+    int[] ordinals(String prefix) {
+        Node node = root;
+        while (node != null) {
+            int i = node.from;
+            while (i < node.to && i < prefix.length()) {
+                if (node.label.charAt(i) != prefix.charAt(i)) {
+                    return NO_ORDINALS;
+                }
+                i++;
+            }
+            if (i == prefix.length()) {
+                return Arrays.copyOfRange(sorted, node.start, node.end);
+            }
+            int child = Arrays.binarySearch(node.childChars, prefix.charAt(i));
+            node = child >= 0 ? node.children[child] : null;
+        }
+        return NO_ORDINALS;
+    }
+
+    private static final class Node {
+
+        /**
+         * The edge label is the characters of the key from {@code from} to {@code to}
+         */
+        private final String label;
+
+        private final int from;
+
+        private final int to;
+
+        private final int start;
+
+        private final int end;
+
+        private final char[] childChars;
+
+        private final Node[] children;
+
+        private Node(String label, int from, int to, int start, int end, char[] childChars, Node[] children) {
+            this.label = label;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.end = end;
+            this.childChars = childChars;
+            this.children = children;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.kkarad.contextprop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Entries grouped by property key; a group is parsed and validated once, by its first resolution
+ */
+final class LazyPropertyGroups {
+
+    private final KeyIndex index;
+
+    private final List<Map<String, String>> groupEntries;
+
+    private final AtomicReferenceArray<Group> groups;
+
+    private final ConditionCodes codes;
+
+    private final Function<Map<String, String>, Collection<ContextProperty>> parser;
+
+    private final PropertyValidator validator;
+
+    private final Consumer<List<Error>> errorLog;
+
+    LazyPropertyGroups(Map<String, String> entries,
+                       ConditionCodes codes,
+                       Function<Map<String, String>, Collection<ContextProperty>> parser,
+                       PropertyValidator validator,
+                       Consumer<List<Error>> errorLog) {
+        Map<String, Map<String, String>> grouped = new HashMap<>();
+        entries.forEach((keyText, value) -> grouped
+                .computeIfAbsent(AbstractBuilder.propertyKey(keyText), key -> new LinkedHashMap<>())
+                .put(keyText, value));
+        this.index = new KeyIndex(grouped.keySet());
+        this.groupEntries = new ArrayList<>(grouped.values());
+        this.groups = new AtomicReferenceArray<>(groupEntries.size());
+        this.codes = codes;
+        this.parser = parser;
+        this.validator = validator;
+        this.errorLog = errorLog;
+    }
+
+    KeyIndex index() {
+        return index;
+    }
+
+    ConditionCodes codes() {
+        return codes;
+    }
+
+    ContextProperty get(String key) {
+        int ordinal = index.ordinal(key);
+        if (ordinal == KeyIndex.NONE) {
+            return null;
+        }
+        return group(ordinal).property;
+    }
+
+    List<ContextProperty> all() {
+        List<ContextProperty> all = new ArrayList<>(index.size());
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            all.add(group(ordinal).property);
+        }
+        return all;
+    }
+
+    List<String> errors() {
+        List<Group> all = new ArrayList<>(index.size());
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            all.add(group(ordinal));
+        }
+        return all.stream()
+                .sorted(Comparator.comparing(group -> group.property.key()))
+                .flatMap(group -> group.errors.stream())
+                .collect(Collectors.toList());
+    }
+
+    private Group group(int ordinal) {
+        Group group = groups.get(ordinal);
+        if (group == null) {
+            Map<String, String> entries = groupEntries.get(ordinal);
+            synchronized (entries) {
+                group = groups.get(ordinal);
+                if (group == null) {
+                    ContextProperty property = parser.apply(entries).iterator().next();
+                    List<Error> errors = validator.validateAll(Collections.singletonList(property));
+                    errorLog.accept(errors);
+                    group = new Group(property, errors.stream().map(Error::message).collect(Collectors.toList()));
+                    groups.set(ordinal, group);
+                }
+            }
+        }
+        return group;
+    }
+
+    private static final class Group {
+
+        private final ContextProperty property;
+
+        private final List<String> errors;
+
+        private Group(ContextProperty property, List<String> errors) {
+            this.property = property;
+            this.errors = errors;
+        }
+    }
+}
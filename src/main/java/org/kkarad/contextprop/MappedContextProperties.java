@@ -0,0 +1,398 @@
+package org.kkarad.contextprop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.String.format;
+import static org.kkarad.contextprop.MappedPropertiesWriter.DICTIONARY_SLOT_SIZE;
+import static org.kkarad.contextprop.MappedPropertiesWriter.NONE;
+import static org.kkarad.contextprop.MappedPropertiesWriter.PROPERTY_SLOT_SIZE;
+import static org.kkarad.contextprop.MappedPropertiesWriter.slot;
+
+/**
+ * Properties resolved on a file written by {@link ContextProperties.Builder#writeMapped(ContextProperties, Path)}
+ */
+public final class MappedContextProperties extends AbstractContextProperties {
+
+    private final ByteBuffer buffer;
+
+    private final int noOfDomainKeys;
+
+    private final int noOfKeys;
+
+    private final int keys;
+
+    private final int dictionaries;
+
+    private final int noOfProperties;
+
+    private final int propertyTableSize;
+
+    private final int propertyTable;
+
+    private final Domain domain;
+
+    private final boolean systemPropertyOverride;
+
+    private final ResolutionConsumer resolutionLogger;
+
+    /**
+     * Open addressing table by string offset, replaced when it grows so that lookups take no lock
+     */
+    private volatile AtomicReferenceArray<DecodedValue> decodedValues = new AtomicReferenceArray<>(64);
+
+    private int noOfDecodedValues = 0;
+
+    private MappedContextProperties(ByteBuffer buffer,
+                                    Domain domain,
+                                    boolean systemPropertyOverride,
+                                    ResolutionConsumer resolutionLogger) {
+        this.buffer = buffer;
+        this.noOfDomainKeys = buffer.getInt(2 * Integer.BYTES);
+        this.noOfKeys = buffer.getInt(3 * Integer.BYTES);
+        this.keys = buffer.getInt(4 * Integer.BYTES);
+        this.dictionaries = buffer.getInt(5 * Integer.BYTES);
+        this.noOfProperties = buffer.getInt(6 * Integer.BYTES);
+        this.propertyTableSize = buffer.getInt(7 * Integer.BYTES);
+        this.propertyTable = buffer.getInt(8 * Integer.BYTES);
+        this.domain = domain;
+        this.systemPropertyOverride = systemPropertyOverride;
+        this.resolutionLogger = resolutionLogger;
+    }
+
+    static MappedContextProperties map(Path file,
+                                       Domain domain,
+                                       boolean systemPropertyOverride,
+                                       ResolutionConsumer resolutionLogger) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < MappedPropertiesWriter.HEADER_SIZE
+                || buffer.getInt(0) != MappedPropertiesWriter.MAGIC
+                || buffer.getInt(Integer.BYTES) != MappedPropertiesWriter.FORMAT_VERSION) {
+            throw new IOException(format("Not a file of mapped properties (%s)", file));
+        }
+        MappedContextProperties properties = new MappedContextProperties(buffer, domain, systemPropertyOverride, resolutionLogger);
+        if (!properties.hasDomain(domain)) {
+            throw new IllegalArgumentException(format("Mapped properties (%s) are not based on domain %s", file, domain));
+        }
+        return properties;
+    }
+
+    public int size() {
+        return noOfProperties;
+    }
+
+    public boolean containsProperty(String property) {
+        return record(property) != NONE;
+    }
+
+    @Override
+    PropertyValue value(String property, DomainPredicates predicates) {
+        int record = record(property);
+        if (record == NONE) {
+            throw new PropertyNotFoundException(property);
+        }
+        PropertyValue value = resolve(property, record, predicates);
+        if (value == null || value.isEmpty()) {
+            throw new PropertyNotFoundException(property, predicates);
+        }
+        return value;
+    }
+
+    @Override
+    PropertyValue nullableValue(String property, DomainPredicates predicates) {
+        int record = record(property);
+        return record != NONE ? resolve(property, record, predicates) : null;
+    }
+
+    private PropertyValue resolve(String property, int record, DomainPredicates predicates) {
+        String systemValue = systemPropertyOverride ? System.getProperty(property) : null;
+        boolean overridden = systemValue != null && !systemValue.isEmpty();
+        PropertyValue value = overridden
+                ? new PropertyValue(systemValue)
+                : decodedValue(bestMatch(record, predicates.valueIds(this)));
+        resolutionLogger.onResolution(property, overridden, value != null ? value.text() : null, true);
+        return value;
+    }
+
+    private int bestMatch(int record, int[] predicateIds) {
+        int noOfContexts = buffer.getInt(record + 2 * Integer.BYTES);
+        int index = buffer.getInt(record + 3 * Integer.BYTES);
+        int contexts = record + 4 * Integer.BYTES;
+
+        int best = NONE;
+        int bestNoOfKeys = 0;
+        if (index == NONE) {
+            for (int i = 0; i < noOfContexts; i++) {
+                int context = buffer.getInt(contexts + i * Integer.BYTES);
+                int noOfMatchedKeys = matches(context, predicateIds);
+                if (noOfMatchedKeys > bestNoOfKeys) {
+                    best = context;
+                    bestNoOfKeys = noOfMatchedKeys;
+                }
+            }
+        } else {
+            int values = findOrdinals(index, predicateId(predicateIds, buffer.getInt(index)));
+            int wildcard = buffer.getInt(index + (2 + 2 * buffer.getInt(index + Integer.BYTES)) * Integer.BYTES);
+            int noOfValues = values != NONE ? buffer.getInt(values) : 0;
+            int noOfWildcards = buffer.getInt(wildcard);
+            int v = 0;
+            int w = 0;
+            while (v < noOfValues || w < noOfWildcards) {
+                int ordinal;
+                if (w == noOfWildcards || (v < noOfValues && ordinal(values, v) < ordinal(wildcard, w))) {
+                    ordinal = ordinal(values, v++);
+                } else {
+                    ordinal = ordinal(wildcard, w++);
+                }
+                int context = buffer.getInt(contexts + ordinal * Integer.BYTES);
+                int noOfMatchedKeys = matches(context, predicateIds);
+                if (noOfMatchedKeys > bestNoOfKeys) {
+                    best = context;
+                    bestNoOfKeys = noOfMatchedKeys;
+                }
+            }
+        }
+        return best != NONE ? buffer.getInt(best) : buffer.getInt(record + Integer.BYTES);
+    }
+
+    private int ordinal(int ordinals, int i) {
+        return buffer.getInt(ordinals + (1 + i) * Integer.BYTES);
+    }
+
+    private int findOrdinals(int index, int valueId) {
+        int low = 0;
+        int high = buffer.getInt(index + Integer.BYTES) - 1;
+        int entries = index + 2 * Integer.BYTES;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = buffer.getInt(entries + 2 * middle * Integer.BYTES);
+            if (middleId < valueId) {
+                low = middle + 1;
+            } else if (middleId > valueId) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(entries + (2 * middle + 1) * Integer.BYTES);
+            }
+        }
+        return NONE;
+    }
+
+    private int matches(int context, int[] predicateIds) {
+        int noOfConditions = buffer.getInt(context + Integer.BYTES);
+        int position = context + 2 * Integer.BYTES;
+        for (int c = 0; c < noOfConditions; c++) {
+            int predicateId = predicateId(predicateIds, buffer.getInt(position));
+            int noOfValues = buffer.getInt(position + Integer.BYTES);
+            position += 2 * Integer.BYTES;
+            if (!containsValue(position, noOfValues, predicateId)) {
+                return 0;
+            }
+            position += noOfValues * Integer.BYTES;
+        }
+        return noOfConditions;
+    }
+
+    private boolean containsValue(int valueIds, int noOfValues, int valueId) {
+        for (int i = 0; i < noOfValues; i++) {
+            int id = buffer.getInt(valueIds + i * Integer.BYTES);
+            if (id >= valueId) {
+                return id == valueId;
+            }
+        }
+        return false;
+    }
+
+    private int predicateId(int[] predicateIds, int keyId) {
+        int predicateId = predicateIds[keyId];
+        if (predicateId == ConditionCodes.MISSING_PREDICATE) {
+            throw new NullPointerException("Unknown domain key: " + string(buffer.getInt(keys + keyId * Integer.BYTES)));
+        }
+        return predicateId;
+    }
+
+    /**
+     * Called once per predicates (see {@link DomainPredicates#valueIds(MappedContextProperties)})
+     */
+    Encoding encode(DomainPredicates predicates, Encoding reuse) {
+        boolean reusable = reuse != null && reuse.properties == this;
+        int[] valueIds = reusable ? reuse.valueIds : new int[noOfKeys];
+        boolean sameDomain = domain.equals(predicates.domain());
+        for (int keyId = 0; keyId < noOfKeys; keyId++) {
+            String predicate = keyId >= noOfDomainKeys
+                    ? null
+                    : sameDomain
+                    ? predicates.value(keyId)
+                    : predicates.value(string(buffer.getInt(keys + keyId * Integer.BYTES)));
+            valueIds[keyId] = predicate != null ? valueId(keyId, predicate) : ConditionCodes.MISSING_PREDICATE;
+        }
+        if (reusable) {
+            reuse.version = predicates.version();
+            return reuse;
+        }
+        return new Encoding(this, predicates.version(), valueIds);
+    }
+
+    private int valueId(int keyId, String value) {
+        int tableSize = buffer.getInt(dictionaries + 2 * keyId * Integer.BYTES);
+        int table = buffer.getInt(dictionaries + (2 * keyId + 1) * Integer.BYTES);
+        int hash = value.hashCode();
+        for (int slot = slot(hash, tableSize); ; slot = (slot + 1) & (tableSize - 1)) {
+            int entry = table + slot * DICTIONARY_SLOT_SIZE;
+            int string = buffer.getInt(entry + Integer.BYTES);
+            if (string == 0) {
+                return ConditionCodes.UNKNOWN_VALUE;
+            }
+            if (buffer.getInt(entry) == hash && equalsString(string, value)) {
+                return buffer.getInt(entry + 2 * Integer.BYTES);
+            }
+        }
+    }
+
+    private int record(String property) {
+        int hash = property.hashCode();
+        for (int slot = slot(hash, propertyTableSize); ; slot = (slot + 1) & (propertyTableSize - 1)) {
+            int entry = propertyTable + slot * PROPERTY_SLOT_SIZE;
+            int record = buffer.getInt(entry + Integer.BYTES);
+            if (record == 0) {
+                return NONE;
+            }
+            if (buffer.getInt(entry) == hash && equalsString(buffer.getInt(record), property)) {
+                return record;
+            }
+        }
+    }
+
+    private boolean hasDomain(Domain domain) {
+        if (noOfDomainKeys != domain.numberOfKeys()) {
+            return false;
+        }
+        for (int keyId = 0; keyId < noOfDomainKeys; keyId++) {
+            if (!equalsString(buffer.getInt(keys + keyId * Integer.BYTES), domain.orderedKeys().get(keyId))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equalsString(int string, String value) {
+        int length = buffer.getInt(string);
+        if (length != value.length()) {
+            return false;
+        }
+        int chars = string + Integer.BYTES;
+        for (int i = 0; i < length; i++) {
+            if (buffer.getChar(chars + i * Character.BYTES) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PropertyValue decodedValue(int string) {
+        if (string == NONE) {
+            return null;
+        }
+        AtomicReferenceArray<DecodedValue> table = decodedValues;
+        int mask = table.length() - 1;
+        for (int slot = slot(string, table.length()); ; slot = (slot + 1) & mask) {
+            DecodedValue decoded = table.get(slot);
+            if (decoded == null) {
+                return decode(string);
+            }
+            if (decoded.string == string) {
+                return decoded.value;
+            }
+        }
+    }
+
+    private synchronized PropertyValue decode(int string) {
+        AtomicReferenceArray<DecodedValue> table = decodedValues;
+        if (2 * (noOfDecodedValues + 1) > table.length()) {
+            AtomicReferenceArray<DecodedValue> grown = new AtomicReferenceArray<>(2 * table.length());
+            for (int i = 0; i < table.length(); i++) {
+                DecodedValue decoded = table.get(i);
+                if (decoded != null) {
+                    insert(grown, decoded);
+                }
+            }
+            decodedValues = table = grown;
+        }
+        DecodedValue decoded = insert(table, new DecodedValue(string, new PropertyValue(string(string))));
+        if (decoded.string == string) {
+            noOfDecodedValues++;
+        }
+        return decoded.value;
+    }
+
+    private static DecodedValue insert(AtomicReferenceArray<DecodedValue> table, DecodedValue value) {
+        int mask = table.length() - 1;
+        for (int slot = slot(value.string, table.length()); ; slot = (slot + 1) & mask) {
+            DecodedValue decoded = table.get(slot);
+            if (decoded == null) {
+                table.set(slot, value);
+                return value;
+            }
+            if (decoded.string == value.string) {
+                return decoded;
+            }
+        }
+    }
+
+    private String string(int string) {
+        if (string == NONE) {
+            return null;
+        }
+        char[] chars = new char[buffer.getInt(string)];
+        int position = string + Integer.BYTES;
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar(position + i * Character.BYTES);
+        }
+        return new String(chars);
+    }
+
+    private static final class DecodedValue {
+
+        private final int string;
+
+        private final PropertyValue value;
+
+        private DecodedValue(int string, PropertyValue value) {
+            this.string = string;
+            this.value = value;
+        }
+    }
+
+    static final class Encoding {
+
+        private final MappedContextProperties properties;
+
+        private int version;
+
+        private final int[] valueIds;
+
+        private Encoding(MappedContextProperties properties, int version, int[] valueIds) {
+            this.properties = properties;
+            this.version = version;
+            this.valueIds = valueIds;
+        }
+
+        boolean isCodedBy(MappedContextProperties properties) {
+            return this.properties == properties;
+        }
+
+        int version() {
+            return version;
+        }
+
+        int[] valueIds() {
+            return valueIds;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.kkarad.contextprop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writer of the file layout of {@link MappedContextProperties}; numbers are big endian ints and references are
+ * absolute offsets:
+ * <pre>
+ * header:     magic, format version, no of domain keys, no of keys, keys, dictionaries, no of properties,
+ *             property table size, property table
+ * keys:       string per key id (domain keys first, in the order of the domain)
+ * dictionary: per key id: table size, table; the table slots are (hash, string, value id)
+ * property:   key string, default value string or -1, no of contexts, index or -1, context per ordinal
+ * context:    value string, no of conditions, (key id, no of values, sorted value ids)*
+ * index:      pivot key id, no of values, (value id, ordinals)* sorted by value id, wildcard ordinals
+ * ordinals:   count, sorted context ordinals
+ * string:     length, UTF-16 chars
+ * table:      open addressing slots of (hash, property) keyed by the property key
+ * </pre>
+ */
+final class MappedPropertiesWriter {
+
+    static final int MAGIC = 0x4354584d;
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int NONE = -1;
+
+    static final int HEADER_SIZE = 9 * Integer.BYTES;
+
+    static final int PROPERTY_SLOT_SIZE = 2 * Integer.BYTES;
+
+    static final int DICTIONARY_SLOT_SIZE = 3 * Integer.BYTES;
+
+    private final Map<String, Integer> keyIds = new LinkedHashMap<>();
+
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+
+    private final Map<String, Integer> stringOffsets = new HashMap<>();
+
+    private ByteBuffer out = ByteBuffer.allocate(1 << 16);
+
+    private MappedPropertiesWriter(Domain domain) {
+        domain.orderedKeys().forEach(this::keyId);
+    }
+
+    static int slot(int hash, int tableSize) {
+        return (hash ^ (hash >>> 16)) & (tableSize - 1);
+    }
+
+    static void write(Path file, Domain domain, Collection<ContextProperty> properties) throws IOException {
+        ByteBuffer layout = new MappedPropertiesWriter(domain).layout(domain, properties);
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, Arrays.copyOf(layout.array(), layout.position()));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private ByteBuffer layout(Domain domain, Collection<ContextProperty> properties) {
+        for (ContextProperty property : properties) {
+            for (Context context : property.contexts()) {
+                for (int c = 0; c < context.noOfConditions(); c++) {
+                    Condition condition = context.condition(c);
+                    Map<String, Integer> dictionary = dictionaries.get(keyId(condition.domainKey()));
+                    for (int v = 0; v < condition.noOfValues(); v++) {
+                        dictionary.putIfAbsent(condition.value(v), dictionary.size());
+                    }
+                }
+            }
+        }
+
+        int noOfKeys = keyIds.size();
+        out.position(HEADER_SIZE);
+        int keys = reserve(noOfKeys);
+        int dictionaryTables = reserve(2 * noOfKeys);
+        for (Map.Entry<String, Integer> key : keyIds.entrySet()) {
+            int keyId = key.getValue();
+            out.putInt(keys + keyId * Integer.BYTES, string(key.getKey()));
+            Map<String, Integer> dictionary = dictionaries.get(keyId);
+            int tableSize = tableSize(dictionary.size());
+            int table = reserve(tableSize * 3);
+            for (Map.Entry<String, Integer> value : dictionary.entrySet()) {
+                int hash = value.getKey().hashCode();
+                int slot = freeSlot(table, tableSize, hash, DICTIONARY_SLOT_SIZE);
+                out.putInt(slot, hash);
+                out.putInt(slot + Integer.BYTES, string(value.getKey()));
+                out.putInt(slot + 2 * Integer.BYTES, value.getValue());
+            }
+            out.putInt(dictionaryTables + 2 * keyId * Integer.BYTES, tableSize);
+            out.putInt(dictionaryTables + (2 * keyId + 1) * Integer.BYTES, table);
+        }
+
+        int propertyTableSize = tableSize(properties.size());
+        int propertyTable = reserve(propertyTableSize * 2);
+        for (ContextProperty property : properties) {
+            int record = property(property);
+            int hash = property.key().hashCode();
+            int slot = freeSlot(propertyTable, propertyTableSize, hash, PROPERTY_SLOT_SIZE);
+            out.putInt(slot, hash);
+            out.putInt(slot + Integer.BYTES, record);
+        }
+
+        int end = out.position();
+        out.position(0);
+        out.putInt(MAGIC);
+        out.putInt(FORMAT_VERSION);
+        out.putInt(domain.numberOfKeys());
+        out.putInt(noOfKeys);
+        out.putInt(keys);
+        out.putInt(dictionaryTables);
+        out.putInt(properties.size());
+        out.putInt(propertyTableSize);
+        out.putInt(propertyTable);
+        out.position(end);
+        return out;
+    }
+
+    private int property(ContextProperty property) {
+        List<Context> contexts = property.contexts();
+        int key = string(property.key());
+        int defaultValue = property.defaultValue() != null ? string(property.defaultValue()) : NONE;
+        int index = contexts.size() >= ContextIndex.MIN_CONTEXTS ? index(contexts) : NONE;
+
+        int[] contextRecords = new int[contexts.size()];
+        for (int i = 0; i < contextRecords.length; i++) {
+            contextRecords[i] = context(contexts.get(i));
+        }
+
+        int record = out.position();
+        putInt(key);
+        putInt(defaultValue);
+        putInt(contexts.size());
+        putInt(index);
+        for (int contextRecord : contextRecords) {
+            putInt(contextRecord);
+        }
+        return record;
+    }
+
+    private int context(Context context) {
+        int value = string(context.propertyValue());
+        int record = out.position();
+        putInt(value);
+        putInt(context.noOfConditions());
+        for (int c = 0; c < context.noOfConditions(); c++) {
+            Condition condition = context.condition(c);
+            int keyId = keyIds.get(condition.domainKey());
+            putInt(keyId);
+            putInt(condition.noOfValues());
+            for (int valueId : valueIds(keyId, condition)) {
+                putInt(valueId);
+            }
+        }
+        return record;
+    }
+
+    private int index(List<Context> contexts) {
+        Map<Integer, Integer> constrained = new TreeMap<>();
+        for (Context context : contexts) {
+            for (int c = 0; c < context.noOfConditions(); c++) {
+                constrained.merge(keyIds.get(context.condition(c).domainKey()), 1, Integer::sum);
+            }
+        }
+        int pivot = constrained.entrySet().stream()
+                .max((a, b) -> a.getValue().equals(b.getValue())
+                        ? Integer.compare(b.getKey(), a.getKey())
+                        : Integer.compare(a.getValue(), b.getValue()))
+                .map(Map.Entry::getKey)
+                .orElse(NONE);
+
+        Map<Integer, List<Integer>> valueOrdinals = new TreeMap<>();
+        List<Integer> wildcard = new ArrayList<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            Condition condition = pivotCondition(contexts.get(i), pivot);
+            if (condition == null) {
+                wildcard.add(i);
+                continue;
+            }
+            for (int valueId : valueIds(pivot, condition)) {
+                valueOrdinals.computeIfAbsent(valueId, id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int[] lists = new int[valueOrdinals.size()];
+        int l = 0;
+        for (List<Integer> ordinals : valueOrdinals.values()) {
+            lists[l++] = ordinals(ordinals);
+        }
+        int wildcardList = ordinals(wildcard);
+
+        int record = out.position();
+        putInt(pivot);
+        putInt(valueOrdinals.size());
+        l = 0;
+        for (Integer valueId : valueOrdinals.keySet()) {
+            putInt(valueId);
+            putInt(lists[l++]);
+        }
+        putInt(wildcardList);
+        return record;
+    }
+
+    private Condition pivotCondition(Context context, int pivot) {
+        for (int c = 0; c < context.noOfConditions(); c++) {
+            if (keyIds.get(context.condition(c).domainKey()) == pivot) {
+                return context.condition(c);
+            }
+        }
+        return null;
+    }
+
+    private int ordinals(List<Integer> ordinals) {
+        int record = out.position();
+        putInt(ordinals.size());
+        ordinals.forEach(this::putInt);
+        return record;
+    }
+
+    private int[] valueIds(int keyId, Condition condition) {
+        Map<String, Integer> dictionary = dictionaries.get(keyId);
+        int[] valueIds = new int[condition.noOfValues()];
+        for (int v = 0; v < valueIds.length; v++) {
+            valueIds[v] = dictionary.get(condition.value(v));
+        }
+        Arrays.sort(valueIds);
+        return valueIds;
+    }
+
+    private int keyId(String key) {
+        Integer keyId = keyIds.get(key);
+        if (keyId == null) {
+            keyId = keyIds.size();
+            keyIds.put(key, keyId);
+            dictionaries.add(new LinkedHashMap<>());
+        }
+        return keyId;
+    }
+
+    private int string(String string) {
+        Integer offset = stringOffsets.get(string);
+        if (offset == null) {
+            offset = out.position();
+            putInt(string.length());
+            ensureCapacity(string.length() * Character.BYTES);
+            for (int i = 0; i < string.length(); i++) {
+                out.putChar(string.charAt(i));
+            }
+            stringOffsets.put(string, offset);
+        }
+        return offset;
+    }
+
+    private int freeSlot(int table, int tableSize, int hash, int slotSize) {
+        int slot = slot(hash, tableSize);
+        while (out.getInt(table + slot * slotSize + Integer.BYTES) != 0) {
+            slot = (slot + 1) & (tableSize - 1);
+        }
+        return table + slot * slotSize;
+    }
+
+    private int reserve(int noOfInts) {
+        ensureCapacity(noOfInts * Integer.BYTES);
+        int offset = out.position();
+        out.position(offset + noOfInts * Integer.BYTES);
+        return offset;
+    }
+
+    private void putInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        out.putInt(value);
+    }
+
+    private void ensureCapacity(int noOfBytes) {
+        if (out.remaining() < noOfBytes) {
+            long required = (long) out.position() + noOfBytes;
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Mapped properties exceed the maximum file size of 2GB");
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, 2L * out.capacity()));
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            out.flip();
+            grown.put(out);
+            out = grown;
+        }
+    }
+
+    private static int tableSize(int noOfEntries) {
+        return Integer.highestOneBit(Math.max(2, noOfEntries) * 2 - 1) << 1;
+    }
+}
@@ -0,0 +1,62 @@
+package org.kkarad.contextprop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Parses the entries in chunks, each into its own visitor; the visitors are merged in chunk order
+ */
+final class ParallelPropertyParser {
+
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+
+    private final ContextVisitor visitor;
+
+    private final Function<ContextVisitor, PropertyParser> parsers;
+
+    ParallelPropertyParser(ForkJoinPool pool, ContextVisitor visitor, Function<ContextVisitor, PropertyParser> parsers) {
+        this.pool = pool;
+        this.visitor = visitor;
+        this.parsers = parsers;
+    }
+
+    Collection<ContextProperty> parse(Properties unresolved) {
+        return parse(PropertyParser.toPropertyMap(unresolved));
+    }
+
+    Collection<ContextProperty> parse(Map<String, String> entries) {
+        return parse(new ArrayList<>(entries.entrySet()));
+    }
+
+    private Collection<ContextProperty> parse(List<Map.Entry<String, String>> entries) {
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, entries.size() / MIN_CHUNK_SIZE));
+        List<ForkJoinTask<ContextVisitor>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            List<Map.Entry<String, String>> chunk = entries.subList(
+                    (int) ((long) entries.size() * c / chunks),
+                    (int) ((long) entries.size() * (c + 1) / chunks));
+            tasks.add(pool.submit(() -> parseChunk(chunk)));
+        }
+
+        visitor.startParse();
+        for (ForkJoinTask<ContextVisitor> task : tasks) {
+            visitor.merge(task.join());
+        }
+        visitor.endParse();
+        return visitor.properties();
+    }
+
+    private ContextVisitor parseChunk(List<Map.Entry<String, String>> chunk) {
+        ContextVisitor chunkVisitor = new ContextVisitor();
+        parsers.apply(chunkVisitor).parse(chunk);
+        return chunkVisitor;
+    }
+}
@@ -0,0 +1,265 @@
+package org.kkarad.contextprop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Binding of property values onto an interface or a record; the accessors are looked up once per type
+ */
+final class PropertyBinding<T> {
+
+    private static final ClassValue<PropertyBinding<?>> BINDINGS = new ClassValue<PropertyBinding<?>>() {
+        @Override
+        protected PropertyBinding<?> computeValue(Class<?> type) {
+            return new PropertyBinding<>(type);
+        }
+    };
+
+    private static final Function<String, String> STRING = text -> text;
+
+    private static final Map<Class<?>, Function<String, ?>> PARSE_FUNCTIONS = new HashMap<>();
+
+    static {
+        PARSE_FUNCTIONS.put(String.class, STRING);
+        PARSE_FUNCTIONS.put(boolean.class, PropertyValue.BOOLEAN);
+        PARSE_FUNCTIONS.put(Boolean.class, PropertyValue.BOOLEAN);
+        PARSE_FUNCTIONS.put(int.class, PropertyValue.INTEGER);
+        PARSE_FUNCTIONS.put(Integer.class, PropertyValue.INTEGER);
+        PARSE_FUNCTIONS.put(long.class, PropertyValue.LONG);
+        PARSE_FUNCTIONS.put(Long.class, PropertyValue.LONG);
+        PARSE_FUNCTIONS.put(double.class, PropertyValue.DOUBLE);
+        PARSE_FUNCTIONS.put(Double.class, PropertyValue.DOUBLE);
+        PARSE_FUNCTIONS.put(BigDecimal.class, PropertyValue.BIG_DECIMAL);
+    }
+
+    /**
+     * Null before Java 16
+     */
+    private static final MethodHandle[] RECORD_HANDLES = recordHandles();
+
+    private final String typeName;
+
+    private final Accessor[] accessors;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private final MethodHandle constructor;
+
+    private final boolean record;
+
+    @SuppressWarnings("unchecked")
+    static <T> PropertyBinding<T> of(Class<T> type) {
+        return (PropertyBinding<T>) BINDINGS.get(type);
+    }
+
+    private PropertyBinding(Class<T> type) {
+        this.typeName = type.getSimpleName();
+        List<Method> methods;
+        if (type.isInterface()) {
+            methods = interfaceAccessors(type);
+            this.constructor = proxyConstructor(type);
+            this.record = false;
+        } else if (isRecord(type)) {
+            methods = recordAccessors(type);
+            this.constructor = canonicalConstructor(type, methods);
+            this.record = true;
+        } else {
+            throw new IllegalArgumentException(format("Properties can be bound onto interfaces and records only: %s", type.getName()));
+        }
+
+        this.accessors = new Accessor[methods.size()];
+        for (int i = 0; i < accessors.length; i++) {
+            Method method = methods.get(i);
+            PropertyKey propertyKey = method.getAnnotation(PropertyKey.class);
+            Type valueType = method.getGenericReturnType();
+            boolean optional = valueType instanceof ParameterizedType
+                    && ((ParameterizedType) valueType).getRawType() == Optional.class;
+            if (optional) {
+                valueType = ((ParameterizedType) valueType).getActualTypeArguments()[0];
+            }
+            Function<String, ?> parseFunction = PARSE_FUNCTIONS.get(valueType);
+            if (parseFunction == null) {
+                throw new IllegalArgumentException(format("Accessor %s.%s() has unsupported type: %s",
+                        type.getName(), method.getName(), method.getGenericReturnType()));
+            }
+            accessors[i] = new Accessor(propertyKey != null ? propertyKey.value() : method.getName(), parseFunction, optional);
+            if (!record) {
+                indexes.put(method.getName(), i);
+            }
+        }
+    }
+
+    private static List<Method> interfaceAccessors(Class<?> type) {
+        List<Method> accessors = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+                throw new IllegalArgumentException(format("Method %s.%s is not an accessor", type.getName(), method.getName()));
+            }
+            accessors.add(method);
+        }
+        accessors.sort(Comparator.comparing(Method::getName));
+        return accessors;
+    }
+
+    private static boolean isRecord(Class<?> type) {
+        return RECORD_HANDLES != null
+                && type.getSuperclass() != null
+                && type.getSuperclass().getName().equals("java.lang.Record");
+    }
+
+    private static List<Method> recordAccessors(Class<?> type) {
+        try {
+            Object[] components = (Object[]) RECORD_HANDLES[0].invoke(type);
+            List<Method> accessors = new ArrayList<>(components.length);
+            for (Object component : components) {
+                accessors.add((Method) RECORD_HANDLES[1].invoke(component));
+            }
+            return accessors;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(format("Components of record %s cannot be read", type.getName()), e);
+        }
+    }
+
+    private static MethodHandle proxyConstructor(Class<?> type) {
+        Class<?> proxyClass = Proxy.newProxyInstance(
+                type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> null).getClass();
+        try {
+            Constructor<?> constructor = proxyClass.getConstructor(InvocationHandler.class);
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(MethodType.methodType(Object.class, InvocationHandler.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException(format("Proxy of interface %s cannot be created", type.getName()), e);
+        }
+    }
+
+    private static MethodHandle canonicalConstructor(Class<?> type, List<Method> accessors) {
+        Class<?>[] parameterTypes = accessors.stream().map(Method::getReturnType).toArray(Class[]::new);
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException(format("Canonical constructor of record %s cannot be accessed", type.getName()), e);
+        }
+    }
+
+    private static MethodHandle[] recordHandles() {
+        try {
+            Class<?> recordComponent = Class.forName("java.lang.reflect.RecordComponent");
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return new MethodHandle[]{
+                    lookup.findVirtual(Class.class, "getRecordComponents",
+                            MethodType.methodType(Class.forName("[Ljava.lang.reflect.RecordComponent;"))),
+                    lookup.findVirtual(recordComponent, "getAccessor", MethodType.methodType(Method.class))};
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T bind(Function<String, PropertyValue> lookup, Function<String, RuntimeException> notFound) {
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            Accessor accessor = accessors[i];
+            PropertyValue value = lookup.apply(accessor.key);
+            boolean missing = value == null || value.isEmpty();
+            if (accessor.optional) {
+                values[i] = missing ? Optional.empty() : Optional.of(value.as(accessor.parseFunction));
+            } else if (missing) {
+                throw notFound.apply(accessor.key);
+            } else {
+                values[i] = value.as(accessor.parseFunction);
+            }
+        }
+        try {
+            return record
+                    ? (T) (Object) constructor.invokeExact(values)
+                    : (T) (Object) constructor.invokeExact((InvocationHandler) new BoundValues(this, values));
+        } catch (RuntimeException | java.lang.Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Accessor {
+
+        private final String key;
+
+        private final Function<String, ?> parseFunction;
+
+        private final boolean optional;
+
+        private Accessor(String key, Function<String, ?> parseFunction, boolean optional) {
+            this.key = key;
+            this.parseFunction = parseFunction;
+            this.optional = optional;
+        }
+    }
+
+    private static final class BoundValues implements InvocationHandler {
+
+        private final PropertyBinding<?> binding;
+
+        private final Object[] values;
+
+        private BoundValues(PropertyBinding<?> binding, Object[] values) {
+            this.binding = binding;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Integer index = args == null ? binding.indexes.get(method.getName()) : null;
+            if (index != null) {
+                return values[index];
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                            && Proxy.getInvocationHandler(args[0]) instanceof BoundValues
+                            && equalValues((BoundValues) Proxy.getInvocationHandler(args[0]));
+                case "hashCode":
+                    return 31 * binding.typeName.hashCode() + Arrays.hashCode(values);
+                case "toString":
+                    StringJoiner joiner = new StringJoiner(", ", binding.typeName + "{", "}");
+                    for (int i = 0; i < values.length; i++) {
+                        joiner.add(binding.accessors[i].key + "=" + values[i]);
+                    }
+                    return joiner.toString();
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+
+        private boolean equalValues(BoundValues that) {
+            return binding == that.binding && Arrays.equals(values, that.values);
+        }
+    }
+}
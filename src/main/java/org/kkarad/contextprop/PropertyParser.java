@@ -1,23 +1,35 @@
 package org.kkarad.contextprop;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+
+import static java.lang.String.format;
 
 final class PropertyParser {
 
     private ParseVisitor visitor;
 
+    private ContextTokenizer tokenizer;
+
     private ContextPattern contextPattern;
 
-    PropertyParser(ParseVisitor visitor, ContextPattern contextPattern) {
+    PropertyParser(ParseVisitor visitor, ContextTokenizer tokenizer, ContextPattern contextPattern) {
         this.visitor = visitor;
+        this.tokenizer = tokenizer;
         this.contextPattern = contextPattern;
     }
 
     Collection<ContextProperty> parse(Properties unresolved) {
-        Map<String, String> propertyMap = toPropertyMap(unresolved);
+        return parse(toPropertyMap(unresolved));
+    }
+
+    Collection<ContextProperty> parse(Map<String, String> propertyMap) {
         visitor.startParse();
         for (Map.Entry<String, String> entry : propertyMap.entrySet()) {
             String keyText = entry.getKey();
@@ -28,7 +40,35 @@ final class PropertyParser {
         return visitor.properties();
     }
 
-    private String parseProperty(String keyText, ContextPattern contextPattern, String value) {
+    Collection<ContextProperty> parse(PropertySource source) throws IOException {
+        Set<String> keys = new HashSet<>();
+        visitor.startParse();
+        source.forEachEntry((keyText, value) -> {
+            if (!keys.add(keyText)) {
+                throw new ContextPropParseException(format("Duplicate property key '%s'", keyText));
+            }
+            parseProperty(keyText, contextPattern, value);
+        });
+        visitor.endParse();
+
+        return visitor.properties();
+    }
+
+    void parse(List<Map.Entry<String, String>> entries) {
+        visitor.startParse();
+        for (Map.Entry<String, String> entry : entries) {
+            parseProperty(entry.getKey(), contextPattern, entry.getValue());
+        }
+        visitor.endParse();
+    }
+
+    private void parseProperty(String keyText, ContextPattern contextPattern, String value) {
+        if (!tokenizer.tokenize(keyText, value)) {
+            parseWithPattern(keyText, contextPattern, value);
+        }
+    }
+
+    private String parseWithPattern(String keyText, ContextPattern contextPattern, String value) {
         contextPattern.startProperty(keyText.length());
         for (int i = 0; i < keyText.length(); i++) {
             char character = keyText.charAt(i);
@@ -45,7 +85,7 @@ final class PropertyParser {
         return contextPattern.propertyKey();
     }
 
-    private Map<String, String> toPropertyMap(Properties contextProperties) {
+    static Map<String, String> toPropertyMap(Properties contextProperties) {
         Map<String, String> normalised = new HashMap<>(contextProperties.size());
         for (String key : contextProperties.stringPropertyNames()) {
             String value = contextProperties.getProperty(key);
@@ -1,59 +1,123 @@
 package org.kkarad.contextprop;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.function.Consumer;
-
-import static java.lang.String.format;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 final class PropertyResolver {
 
-    private final Consumer<String> debugMsgResolver;
+    private final DebugLog debugResolver;
+
+    private final ResolutionMetrics metrics;
+
+    /**
+     * Negative records no events
+     */
+    private final long eventIntervalNanos;
+
+    private final AtomicLong nextEventNanos = new AtomicLong(Long.MIN_VALUE);
 
-    PropertyResolver(Consumer<String> debugMsgResolver) {
-        this.debugMsgResolver = debugMsgResolver;
+    PropertyResolver(DebugLog debugResolver) {
+        this(debugResolver, null, 0);
     }
 
-    String resolve(ContextProperty property, DomainPredicates predicates) {
-        String value;
-        List<Match> matches = new ArrayList<>();
-        for (Context context : property.contexts()) {
-            int noOfMatchedKeys = findMatches(context, predicates);
-            if (noOfMatchedKeys > 0) {
-                matches.add(new Match(noOfMatchedKeys, context));
-            }
-        }
+    PropertyResolver(DebugLog debugResolver, ResolutionMetrics metrics, int eventsPerSecond) {
+        this.debugResolver = debugResolver;
+        this.metrics = metrics;
+        this.eventIntervalNanos = eventsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / eventsPerSecond : -1;
+    }
 
-        matches.sort((left, right) -> right.noOfKeys() - left.noOfKeys());
+    PropertyValue resolve(ContextProperty property, DomainPredicates predicates) {
+        Object event = eventIntervalNanos >= 0 && isEventDue() ? FlightRecorderEvents.beginResolution() : null;
+        PropertyValue value;
+        int[] predicateIds = predicates.valueIds(property.codes());
+        ContextIndex contextIndex = property.contextIndex();
+        Context context = contextIndex != null
+                ? contextIndex.bestMatch(predicateIds)
+                : bestMatch(property.contexts(), predicateIds, predicates);
+        if (metrics != null) {
+            metrics.onMatch(context != null, property.contexts().size(), contextIndex != null);
+        }
+        if (event != null) {
+            FlightRecorderEvents.endResolution(event, property.key(),
+                    contextIndex != null ? contextIndex.scannedContexts(predicateIds) : property.contexts().size(),
+                    matchingContexts(property.contexts(), predicateIds), contextIndex != null, context);
+        }
 
-        if (matches.isEmpty()) {
-            value = property.defaultValue();
-            debugMsgResolver.accept(format("PropertyResolver.resolve -> property '%s' resolved to default value '%s'", property.key(), value));
+        if (context == null) {
+            value = property.defaultPropertyValue();
+            debugResolver.log("PropertyResolver.resolve -> property '%s' resolved to default value '%s'", property.key(), value);
         } else {
-            Context context = matches.iterator().next().propertyContext();
-            value = context.propertyValue();
-            debugMsgResolver.accept(format("PropertyResolver.resolve -> property '%s' resolved to '%s' based on context (%s)",
-                    property.key(), value, context));
+            value = context.value();
+            debugResolver.log("PropertyResolver.resolve -> property '%s' resolved to '%s' based on context (%s)",
+                    property.key(), value, context);
         }
         return value;
     }
 
-    private int findMatches(Context context, DomainPredicates predicates) {
+    private boolean isEventDue() {
+        long now = System.nanoTime();
+        long next = nextEventNanos.get();
+        return (next == Long.MIN_VALUE || now - next >= 0) && nextEventNanos.compareAndSet(next, now + eventIntervalNanos);
+    }
+
+    private static int matchingContexts(List<Context> contexts, int[] predicateIds) {
+        int matching = 0;
+        for (Context context : contexts) {
+            boolean matches = true;
+            for (int i = 0; i < context.noOfConditions() && matches; i++) {
+                Condition condition = context.condition(i);
+                matches = condition.containsValue(predicateId(predicateIds, condition.keyId(), condition.domainKey()));
+            }
+            if (matches) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+    private Context bestMatch(List<Context> contexts, int[] predicateIds, DomainPredicates predicates) {
+        Context bestMatch = null;
+        int bestNoOfKeys = 0;
+        for (Context context : contexts) {
+            int noOfMatchedKeys = findMatches(context, predicateIds, predicates);
+            if (noOfMatchedKeys > bestNoOfKeys) {
+                bestMatch = context;
+                bestNoOfKeys = noOfMatchedKeys;
+            }
+        }
+        return bestMatch;
+    }
+
+    private int findMatches(Context context, int[] predicateIds, DomainPredicates predicates) {
         int matches = 0;
-        for (Condition condition : context.conditions()) {
-            String domainPredicate = predicates.value(condition.domainKey());
-            Objects.requireNonNull(domainPredicate, "Unknown domain key: " + condition.domainKey());
-            if (!condition.containsValue(domainPredicate)) {
-                debugMsgResolver.accept(format("PropertyResolver.match -> condition (%s) does not match predicate (%s) (context: %s)",
-                        condition, domainPredicate, context));
+        for (int i = 0; i < context.noOfConditions(); i++) {
+            Condition condition = context.condition(i);
+            int predicateId = predicateId(predicateIds, condition.keyId(), condition.domainKey());
+            if (!condition.containsValue(predicateId)) {
+                if (debugResolver.isEnabled()) {
+                    debugResolver.log("PropertyResolver.match -> condition (%s) does not match predicate (%s) (context: %s)",
+                            condition, predicates.value(condition.domainKey()), context);
+                }
                 return 0;
             }
-            debugMsgResolver.accept(format("PropertyResolver.match -> condition (%s) matches predicate (%s) (context: %s)",
-                    condition, domainPredicate, context));
+            if (debugResolver.isEnabled()) {
+                debugResolver.log("PropertyResolver.match -> condition (%s) matches predicate (%s) (context: %s)",
+                        condition, predicates.value(condition.domainKey()), context);
+            }
             matches++;
         }
-        debugMsgResolver.accept(format("PropertyResolver.match -> context (%s) matched %s times", context, matches));
+        if (debugResolver.isEnabled()) {
+            debugResolver.log("PropertyResolver.match -> context (%s) matched %s times", context, matches);
+        }
         return matches;
     }
+
+    static int predicateId(int[] predicateIds, int keyId, String domainKey) {
+        int predicateId = predicateIds[keyId];
+        if (predicateId == ConditionCodes.MISSING_PREDICATE) {
+            throw new NullPointerException("Unknown domain key: " + domainKey);
+        }
+        return predicateId;
+    }
 }
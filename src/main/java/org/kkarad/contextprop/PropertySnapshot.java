@@ -0,0 +1,221 @@
+package org.kkarad.contextprop;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of parsed properties, stale when the SHA-256 hash of the source or the domain keys differ:
+ * <pre>
+ * magic, format version, source hash, domain keys
+ * strings: count, (length, UTF-8 bytes)*
+ * properties: count, (key, default value or -1, contexts: count, (value, conditions: count, (domain key, values: count, value*)*)*)*
+ * CRC-32 of all the above
+ * </pre>
+ */
+final class PropertySnapshot {
+
+    private static final int MAGIC = 0x43545850;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int NO_STRING = -1;
+
+    private PropertySnapshot() {
+    }
+
+    static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void write(Path snapshot, byte[] sourceHash, Domain domain, Collection<ContextProperty> properties)
+            throws IOException {
+        Path parent = snapshot.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+                write(outputStream, sourceHash, domain, properties);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static void write(OutputStream outputStream, byte[] sourceHash, Domain domain, Collection<ContextProperty> properties)
+            throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (ContextProperty property : properties) {
+            intern(ids, strings, property.key());
+            intern(ids, strings, property.defaultValue());
+            for (Context context : property.contexts()) {
+                intern(ids, strings, context.propertyValue());
+                for (int c = 0; c < context.noOfConditions(); c++) {
+                    Condition condition = context.condition(c);
+                    intern(ids, strings, condition.domainKey());
+                    for (int v = 0; v < condition.noOfValues(); v++) {
+                        intern(ids, strings, condition.value(v));
+                    }
+                }
+            }
+        }
+
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(outputStream), new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(sourceHash.length);
+        out.write(sourceHash);
+        out.writeInt(domain.orderedKeys().size());
+        for (String domainKey : domain.orderedKeys()) {
+            writeString(out, domainKey);
+        }
+
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+
+        out.writeInt(properties.size());
+        for (ContextProperty property : properties) {
+            out.writeInt(ids.get(property.key()));
+            out.writeInt(property.defaultValue() != null ? ids.get(property.defaultValue()) : NO_STRING);
+            out.writeInt(property.contexts().size());
+            for (Context context : property.contexts()) {
+                out.writeInt(ids.get(context.propertyValue()));
+                out.writeInt(context.noOfConditions());
+                for (int c = 0; c < context.noOfConditions(); c++) {
+                    Condition condition = context.condition(c);
+                    out.writeInt(ids.get(condition.domainKey()));
+                    out.writeInt(condition.noOfValues());
+                    for (int v = 0; v < condition.noOfValues(); v++) {
+                        out.writeInt(ids.get(condition.value(v)));
+                    }
+                }
+            }
+        }
+        out.writeInt((int) checked.getChecksum().getValue());
+        out.flush();
+    }
+
+    /**
+     * Returns null when the snapshot does not exist, is stale or is corrupt
+     */
+    static Collection<ContextProperty> read(Path snapshot, byte[] sourceHash, Domain domain) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try {
+            return read(ByteBuffer.wrap(Files.readAllBytes(snapshot)), sourceHash, domain);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    static Collection<ContextProperty> read(ByteBuffer in, byte[] sourceHash, Domain domain) {
+        int end = in.limit() - Integer.BYTES;
+        CRC32 checksum = new CRC32();
+        checksum.update(in.array(), in.arrayOffset() + in.position(), end - in.position());
+        if ((int) checksum.getValue() != in.getInt(end)) {
+            return null;
+        }
+        in.limit(end);
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+            return null;
+        }
+        byte[] hash = new byte[count(in, 1)];
+        in.get(hash);
+        if (!Arrays.equals(hash, sourceHash)) {
+            return null;
+        }
+        List<String> domainKeys = new ArrayList<>();
+        for (int i = count(in, 4); i > 0; i--) {
+            domainKeys.add(readString(in));
+        }
+        if (!domainKeys.equals(domain.orderedKeys())) {
+            return null;
+        }
+
+        String[] strings = new String[count(in, 4)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+
+        ConditionCodes codes = new ConditionCodes(domain);
+        int noOfProperties = count(in, 12);
+        List<ContextProperty> properties = new ArrayList<>(noOfProperties);
+        for (int p = 0; p < noOfProperties; p++) {
+            ContextProperty.Builder builder = ContextProperty.Builder.contextProperty(strings[in.getInt()], codes);
+            int defaultValue = in.getInt();
+            if (defaultValue != NO_STRING) {
+                builder.defaultValue(strings[defaultValue]);
+            }
+            for (int c = count(in, 8); c > 0; c--) {
+                String value = strings[in.getInt()];
+                Context.Builder context = Context.Builder.context();
+                for (int k = count(in, 8); k > 0; k--) {
+                    String domainKey = strings[in.getInt()];
+                    Set<String> values = new LinkedHashSet<>();
+                    for (int v = count(in, 4); v > 0; v--) {
+                        values.add(strings[in.getInt()]);
+                    }
+                    context.condition(domainKey, values);
+                }
+                builder.add(context.getWithValue(value));
+            }
+            properties.add(builder.get());
+        }
+        return properties;
+    }
+
+    private static void intern(Map<String, Integer> ids, List<String> strings, String string) {
+        if (string != null && !ids.containsKey(string)) {
+            ids.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int count(ByteBuffer in, int elementSize) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / elementSize) {
+            throw new IllegalArgumentException("Count exceeds the remaining bytes: " + count);
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = count(in, 1);
+        String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return string;
+    }
+}
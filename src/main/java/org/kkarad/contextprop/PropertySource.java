@@ -0,0 +1,294 @@
+package org.kkarad.contextprop;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * Streaming tokenizer of the {@link java.util.Properties#load(Reader)} format; bytes are read as ISO 8859-1
+ */
+abstract class PropertySource {
+
+    private static final int EOF = -1;
+
+    private static final int END_OF_LINE = -2;
+
+    private static final int NONE = -3;
+
+    private static final int MIN_MAPPED_SIZE = 1 << 20;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private int pending = NONE;
+
+    private boolean escaped;
+
+    static PropertySource of(Reader reader) {
+        return new ReaderSource(reader);
+    }
+
+    static PropertySource of(InputStream inputStream) {
+        return new InputStreamSource(inputStream);
+    }
+
+    static PropertySource of(ByteBuffer buffer) {
+        return new ByteBufferSource(buffer);
+    }
+
+    /**
+     * Files from 1 MiB are mapped; a mapped file must not be truncated while it is read, as reading its missing pages
+     * fails with an {@link InternalError} (or SIGBUS)
+     */
+    static PropertySource of(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MIN_MAPPED_SIZE) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    //a truncated file ends early
+                }
+                buffer.flip();
+                return of(buffer);
+            }
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    abstract int readChar() throws IOException;
+
+    /**
+     * A repeated key replaces the earlier value, as in {@link java.util.Properties}, unless duplicates are rejected
+     */
+    Map<String, String> entries(boolean rejectDuplicateKeys) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        forEachEntry((keyText, value) -> {
+            if (entries.put(keyText, value) != null && rejectDuplicateKeys) {
+                throw new ContextPropParseException(format("Duplicate property key '%s'", keyText));
+            }
+        });
+        return entries;
+    }
+
+    void forEachEntry(BiConsumer<String, String> consumer) throws IOException {
+        while (true) {
+            int c = skipWhitespace(next());
+            if (c == EOF) {
+                return;
+            }
+            if (c == END_OF_LINE) {
+                continue;
+            }
+            if (!escaped && (c == '#' || c == '!')) {
+                skipComment();
+                continue;
+            }
+
+            text.setLength(0);
+            c = readKey(c);
+            String key = text.toString();
+
+            text.setLength(0);
+            if (c != EOF && c != END_OF_LINE) {
+                readValue(c);
+            }
+            consumer.accept(key, text.toString());
+        }
+    }
+
+    private int readKey(int c) throws IOException {
+        while (c != EOF && c != END_OF_LINE) {
+            if (!escaped && (c == '=' || c == ':')) {
+                return skipWhitespace(next());
+            }
+            if (!escaped && isWhitespace(c)) {
+                c = skipWhitespace(next());
+                if (!escaped && (c == '=' || c == ':')) {
+                    c = skipWhitespace(next());
+                }
+                return c;
+            }
+            text.append((char) c);
+            c = next();
+        }
+        return c;
+    }
+
+    private void readValue(int c) throws IOException {
+        while (c != EOF && c != END_OF_LINE) {
+            text.append((char) c);
+            c = next();
+        }
+    }
+
+    private int skipWhitespace(int c) throws IOException {
+        while (!escaped && isWhitespace(c)) {
+            c = next();
+        }
+        return c;
+    }
+
+    private void skipComment() throws IOException {
+        int c = read();
+        while (c != EOF && c != '\n' && c != '\r') {
+            c = read();
+        }
+    }
+
+    private int next() throws IOException {
+        escaped = false;
+        int c = read();
+        if (c == '\r' || c == '\n') {
+            skipLineFeed(c);
+            return END_OF_LINE;
+        }
+        if (c != '\\') {
+            return c;
+        }
+
+        c = read();
+        switch (c) {
+            case EOF:
+                return EOF;
+            case '\r':
+            case '\n':
+                skipLineFeed(c);
+                int first = read();
+                while (isWhitespace(first)) {
+                    first = read();
+                }
+                pending = first;
+                return next();
+            case 'u':
+                escaped = true;
+                return unicode();
+            case 't':
+                escaped = true;
+                return '\t';
+            case 'r':
+                escaped = true;
+                return '\r';
+            case 'n':
+                escaped = true;
+                return '\n';
+            case 'f':
+                escaped = true;
+                return '\f';
+            default:
+                escaped = true;
+                return c;
+        }
+    }
+
+    private int unicode() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+            }
+            value = (value << 4) + digit;
+        }
+        return value;
+    }
+
+    private void skipLineFeed(int c) throws IOException {
+        if (c == '\r') {
+            int lf = read();
+            if (lf != '\n') {
+                pending = lf;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != NONE) {
+            int c = pending;
+            pending = NONE;
+            return c;
+        }
+        return readChar();
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static final class ReaderSource extends PropertySource {
+
+        private final Reader reader;
+
+        private final char[] buffer = new char[8192];
+
+        private int position = 0;
+
+        private int limit = 0;
+
+        private ReaderSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        int readChar() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return EOF;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+
+    private static final class InputStreamSource extends PropertySource {
+
+        private final InputStream inputStream;
+
+        private final byte[] buffer = new byte[8192];
+
+        private int position = 0;
+
+        private int limit = 0;
+
+        private InputStreamSource(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        int readChar() throws IOException {
+            if (position == limit) {
+                limit = inputStream.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return EOF;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+    }
+
+    private static final class ByteBufferSource extends PropertySource {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferSource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        int readChar() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : EOF;
+        }
+    }
+}
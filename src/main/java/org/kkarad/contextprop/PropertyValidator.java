@@ -1,50 +1,107 @@
 package org.kkarad.contextprop;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.Supplier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.lang.String.format;
-import static java.util.Collections.disjoint;
 import static org.kkarad.contextprop.Error.Type.*;
 
+/**
+ * Contexts are bucketed by their domain keys, so each group is checked in time linear to its conditions
+ */
 final class PropertyValidator {
     private final Domain domain;
     private final boolean requiresDefault;
+    private final ForkJoinPool pool;
+    private final Map<String, Integer> keyIndexes = new HashMap<>();
 
     PropertyValidator(Domain domain, boolean requiresDefault) {
+        this(domain, requiresDefault, null);
+    }
+
+    PropertyValidator(Domain domain, boolean requiresDefault, ForkJoinPool pool) {
         this.domain = domain;
         this.requiresDefault = requiresDefault;
+        this.pool = pool;
+        for (String domainKey : domain.orderedKeys()) {
+            keyIndexes.put(domainKey, keyIndexes.size());
+        }
     }
 
     Optional<Error> validate(ContextProperty property) {
-        return findFirst(
-                () -> validateDomainKeys(property),
-                () -> validateDefaultRequirement(property),
-                () -> validateConditionOrder(property),
-                () -> validateContextScope(property));
+        List<Error> errors = validate(property, true);
+        return errors.isEmpty() ? Optional.empty() : Optional.of(errors.get(0));
     }
 
-    @SafeVarargs
-    private final Optional<Error> findFirst(Supplier<Optional<Error>>... validators) {
-        return Arrays.stream(validators)
-                .map(Supplier::get)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst();
+    List<Error> validateAll(Collection<ContextProperty> properties) {
+        ContextProperty[] sorted = properties.toArray(new ContextProperty[0]);
+        Arrays.sort(sorted, Comparator.comparing(ContextProperty::key));
+        IntStream indexes = IntStream.range(0, sorted.length);
+        if (pool == null) {
+            return indexes.mapToObj(i -> validate(sorted[i], false))
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        }
+        return pool.submit(() -> indexes.parallel()
+                .mapToObj(i -> validate(sorted[i], false))
+                .flatMap(List::stream)
+                .collect(Collectors.toList()))
+                .join();
     }
 
-    private Optional<Error> validateDomainKeys(ContextProperty property) {
-        Optional<String> invalidDomainKey = property.contexts()
-                .stream()
-                .flatMap(context -> context.conditions().stream())
-                .map(Condition::domainKey)
-                .filter(key -> !domain.contains(key))
-                .findFirst();
+    private List<Error> validate(ContextProperty property, boolean firstOnly) {
+        List<Error> errors = new ArrayList<>(1);
+        Error invalidDomain = validateDomainKeys(property);
+        if (invalidDomain != null) {
+            errors.add(invalidDomain);
+            if (firstOnly) {
+                return errors;
+            }
+        }
+        if (requiresDefault && property.defaultValue() == null) {
+            errors.add(missingDefaultPropertyError(property.key()));
+            if (firstOnly) {
+                return errors;
+            }
+        }
+        if (invalidDomain == null && property.contexts().size() > 1) {
+            BitSet[] signatures = signatures(property.contexts());
+            Error orderViolation = validateConditionOrder(property, signatures);
+            if (orderViolation != null) {
+                errors.add(orderViolation);
+                if (firstOnly) {
+                    return errors;
+                }
+            }
+            Error scopeConflict = validateContextScope(property, signatures);
+            if (scopeConflict != null) {
+                errors.add(scopeConflict);
+            }
+        }
+        return errors;
+    }
 
-        return invalidDomainKey
-                .map(domainKey -> invalidDomainError(property.key(), domainKey));
+    private Error validateDomainKeys(ContextProperty property) {
+        for (Context context : property.contexts()) {
+            for (int c = 0; c < context.noOfConditions(); c++) {
+                String domainKey = context.condition(c).domainKey();
+                if (!keyIndexes.containsKey(domainKey)) {
+                    return invalidDomainError(property.key(), domainKey);
+                }
+            }
+        }
+        return null;
     }
 
     private Error invalidDomainError(String propertyKey, String domainKey) {
@@ -52,42 +109,43 @@ final class PropertyValidator {
         return new Error(msg, INVALID_DOMAIN);
     }
 
-    private Optional<Error> validateDefaultRequirement(ContextProperty property) {
-        if (!requiresDefault) return Optional.empty();
-
-        return property.defaultValue() == null
-                ? Optional.of(missingDefaultPropertyError(property.key()))
-                : Optional.empty();
-    }
-
     private Error missingDefaultPropertyError(String propertyKey) {
         return new Error(format("default context is missing from property: '%s'", propertyKey), MISSING_DEFAULT);
     }
 
-    private Optional<Error> validateConditionOrder(ContextProperty property) {
-        for (String domainKey : domain.orderedKeys()) {
-            if (domainKeyExists(property, domainKey)) {
-                for (Context context : property.contexts()) {
-                    if (!context.containsCondition(domainKey)) {
-                        return Optional.of(missingHighOrderDomainKeyError(
-                                domainKey, property.key(),
-                                context.toStringOrderBy(domain.orderedKeys())));
-                    }
-                }
+    private BitSet[] signatures(List<Context> contexts) {
+        BitSet[] signatures = new BitSet[contexts.size()];
+        for (int i = 0; i < signatures.length; i++) {
+            Context context = contexts.get(i);
+            signatures[i] = new BitSet(keyIndexes.size());
+            for (int c = 0; c < context.noOfConditions(); c++) {
+                signatures[i].set(keyIndexes.get(context.condition(c).domainKey()));
             }
         }
-
-        return Optional.empty();
+        return signatures;
     }
 
-    private boolean domainKeyExists(ContextProperty property, String domainKey) {
-        for (Context context : property.contexts()) {
-            if (context.containsCondition(domainKey)) {
-                return true;
-            }
+    private Error validateConditionOrder(ContextProperty property, BitSet[] signatures) {
+        BitSet missing = new BitSet(keyIndexes.size());
+        BitSet common = (BitSet) signatures[0].clone();
+        for (BitSet signature : signatures) {
+            missing.or(signature);
+            common.and(signature);
         }
+        missing.andNot(common);
 
-        return false;
+        int keyIndex = missing.nextSetBit(0);
+        if (keyIndex < 0) {
+            return null;
+        }
+        for (int i = 0; i < signatures.length; i++) {
+            if (!signatures[i].get(keyIndex)) {
+                return missingHighOrderDomainKeyError(
+                        domain.orderedKeys().get(keyIndex), property.key(),
+                        property.contexts().get(i).toStringOrderBy(domain.orderedKeys()));
+            }
+        }
+        return null;
     }
 
     private Error missingHighOrderDomainKeyError(String domainKey,
@@ -98,27 +156,40 @@ final class PropertyValidator {
         return new Error(msg, CONDITION_ORDER_VIOLATION);
     }
 
-    private Optional<Error> validateContextScope(ContextProperty property) {
-        for (Context thisCtx : property.contexts()) {
-            for (Context thatCtx : property.contexts()) {
-                if (thisCtx != thatCtx && thisCtx.equalDomain(thatCtx) && contextConflictExists(thisCtx, thatCtx)) {
-                    return Optional.of(contextScopeConflictError(thisCtx, thatCtx));
-                }
-            }
+    /**
+     * Each value of a bucket is owned by the first context which defines it
+     */
+    private Error validateContextScope(ContextProperty property, BitSet[] signatures) {
+        Map<BitSet, List<Integer>> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < signatures.length; i++) {
+            buckets.computeIfAbsent(signatures[i], signature -> new ArrayList<>()).add(i);
         }
-        return Optional.empty();
-    }
 
-    private boolean contextConflictExists(Context thisCtx, Context thatCtx) {
-        for (Condition thisCondition : thisCtx.conditions()) {
-            Set<String> thisValues = thisCondition.values();
-            Set<String> thatValues = thatCtx.condition(thisCondition.domainKey()).values();
-            boolean commonValueExists = !disjoint(thisValues, thatValues);
-            if (commonValueExists) {
-                return true;
+        List<Context> contexts = property.contexts();
+        int first = -1;
+        int second = -1;
+        for (List<Integer> bucket : buckets.values()) {
+            if (bucket.size() < 2) {
+                continue;
+            }
+            Map<Long, Integer> owners = new HashMap<>();
+            for (int index : bucket) {
+                Context context = contexts.get(index);
+                for (int c = 0; c < context.noOfConditions(); c++) {
+                    Condition condition = context.condition(c);
+                    for (int valueId : condition.valueIds()) {
+                        long value = ((long) condition.keyId() << 32) | (valueId & 0xffffffffL);
+                        Integer owner = owners.putIfAbsent(value, index);
+                        if (owner != null && owner != index
+                                && (first == -1 || owner < first || (owner == first && index < second))) {
+                            first = owner;
+                            second = index;
+                        }
+                    }
+                }
             }
         }
-        return false;
+        return first != -1 ? contextScopeConflictError(contexts.get(first), contexts.get(second)) : null;
     }
 
     private Error contextScopeConflictError(Context thisCtx, Context thatCtx) {
@@ -0,0 +1,103 @@
+package org.kkarad.contextprop;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Keeps the typed form of the text for each built-in type, and for the last other parse function
+ */
+final class PropertyValue {
+
+    static final Function<String, Boolean> BOOLEAN = TrueFalse::parse;
+
+    static final Function<String, Integer> INTEGER = Integer::valueOf;
+
+    static final Function<String, Long> LONG = Long::valueOf;
+
+    static final Function<String, Double> DOUBLE = Double::valueOf;
+
+    static final Function<String, BigDecimal> BIG_DECIMAL = BigDecimal::new;
+
+    private static final int OTHER = -1;
+
+    private static final int BUILT_IN_TYPES = 5;
+
+    private final String text;
+
+    /**
+     * Created by the first lookup of a built-in type; a racing lookup may only parse the text again
+     */
+    private volatile AtomicReferenceArray<Object> builtIn;
+
+    private volatile Typed typed;
+
+    PropertyValue(String text) {
+        this.text = text;
+    }
+
+    String text() {
+        return text;
+    }
+
+    boolean isEmpty() {
+        return text.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T as(Function<String, T> parseFunction) {
+        int slot = slot(parseFunction);
+        if (slot != OTHER) {
+            AtomicReferenceArray<Object> values = builtIn;
+            if (values == null) {
+                values = new AtomicReferenceArray<>(BUILT_IN_TYPES);
+                builtIn = values;
+            }
+            Object value = values.get(slot);
+            if (value == null) {
+                value = parseFunction.apply(text);
+                values.set(slot, value);
+            }
+            return (T) value;
+        }
+        Typed last = typed;
+        if (last != null && last.parseFunction == parseFunction) {
+            return (T) last.value;
+        }
+        T value = parseFunction.apply(text);
+        typed = new Typed(parseFunction, value);
+        return value;
+    }
+
+    private static int slot(Function<String, ?> parseFunction) {
+        if (parseFunction == BOOLEAN) {
+            return 0;
+        } else if (parseFunction == INTEGER) {
+            return 1;
+        } else if (parseFunction == LONG) {
+            return 2;
+        } else if (parseFunction == DOUBLE) {
+            return 3;
+        } else if (parseFunction == BIG_DECIMAL) {
+            return 4;
+        }
+        return OTHER;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static final class Typed {
+
+        private final Function<String, ?> parseFunction;
+
+        private final Object value;
+
+        private Typed(Function<String, ?> parseFunction, Object value) {
+            this.parseFunction = parseFunction;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.kkarad.contextprop;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Properties of a file which are reloaded in the background when it changes; pin a version with {@link #current()}
+ */
+public final class ReloadableContextProperties implements AutoCloseable {
+
+    private final ContextProperties.Builder builder;
+
+    private final Path file;
+
+    private final long debounceMillis;
+
+    private final Consumer<Exception> errorConsumer;
+
+    private final WatchService watchService;
+
+    private volatile Version current;
+
+    ReloadableContextProperties(ContextProperties.Builder builder,
+                                Path file,
+                                long debounceMillis,
+                                Consumer<Exception> errorConsumer) throws IOException {
+        this.builder = builder;
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.errorConsumer = errorConsumer;
+        this.watchService = file.getFileSystem().newWatchService();
+        try {
+            this.file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            //loaded after the registration, so that a change while loading is reloaded
+            this.current = new Version(1, load(null));
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+
+        Thread watcher = new Thread(this::watch, "contextprop-reload-" + this.file.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public Version current() {
+        return current;
+    }
+
+    public ContextProperties properties() {
+        return current.properties;
+    }
+
+    public synchronized void reload() throws IOException {
+        Version previous = current;
+        current = new Version(previous.number + 1, load(previous.properties));
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Read as a stream, as a writer may truncate the file while it is read
+     */
+    private ContextProperties load(ContextProperties previous) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return previous != null ? builder.update(previous, inputStream) : builder.createIncremental(inputStream);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!isFileChange(watchService.take())) {
+                    continue;
+                }
+                long quietUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                long remaining;
+                while ((remaining = quietUntil - System.nanoTime()) > 0) {
+                    WatchKey key = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (key != null && isFileChange(key)) {
+                        quietUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                    }
+                }
+                reloadAndReport();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            //closed
+        } catch (IOException e) {
+            errorConsumer.accept(e);
+        }
+    }
+
+    private boolean isFileChange(WatchKey key) throws IOException {
+        boolean fileChange = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            fileChange |= event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context());
+        }
+        if (!key.reset()) {
+            throw new IOException("Directory of " + file + " is no longer watched");
+        }
+        return fileChange;
+    }
+
+    private void reloadAndReport() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            errorConsumer.accept(e);
+        }
+    }
+
+    public static final class Version {
+
+        private final long number;
+
+        private final ContextProperties properties;
+
+        private Version(long number, ContextProperties properties) {
+            this.number = number;
+            this.properties = properties;
+        }
+
+        public long number() {
+            return number;
+        }
+
+        public ContextProperties properties() {
+            return properties;
+        }
+    }
+}
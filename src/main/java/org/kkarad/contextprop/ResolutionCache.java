@@ -0,0 +1,171 @@
+package org.kkarad.contextprop;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Bounded cache of resolutions; a hit takes no lock and evictions sample a few entries
+ */
+final class ResolutionCache {
+
+    private static final int SAMPLE_SIZE = 8;
+
+    private static final Object NO_VALUE = new Object();
+
+    private final int maximumSize;
+
+    private final CacheEviction eviction;
+
+    private final ConcurrentHashMap<ContextProperty, ConcurrentHashMap<DomainPredicates, Entry>> entries =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Guarded by the lock
+     */
+    private final Entry[] slots;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private int size = 0;
+
+    private long insertions = 0;
+
+    private long evictionCount = 0;
+
+    static ResolutionCache create(int maximumSize, CacheEviction eviction) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(format("Cache size should be positive (size: %s)", maximumSize));
+        }
+        if (eviction == null) {
+            throw new IllegalArgumentException("Cache eviction should not be null");
+        }
+        return new ResolutionCache(maximumSize, eviction);
+    }
+
+    private ResolutionCache(int maximumSize, CacheEviction eviction) {
+        this.maximumSize = maximumSize;
+        this.eviction = eviction;
+        this.slots = new Entry[maximumSize];
+    }
+
+    PropertyValue resolve(ContextProperty property,
+                          DomainPredicates predicates,
+                          BiFunction<ContextProperty, DomainPredicates, PropertyValue> resolver) {
+        ConcurrentHashMap<DomainPredicates, Entry> propertyEntries = entries.get(property);
+        Entry entry = propertyEntries != null ? propertyEntries.get(predicates) : null;
+        if (entry != null) {
+            entry.onHit(eviction);
+            hitCount.increment();
+            return entry.value != NO_VALUE ? (PropertyValue) entry.value : null;
+        }
+        missCount.increment();
+
+        PropertyValue resolved = resolver.apply(property, predicates);
+        put(property, predicates.copy(), resolved != null ? resolved : NO_VALUE);
+        return resolved;
+    }
+
+    private void put(ContextProperty property, DomainPredicates predicates, Object value) {
+        lock.lock();
+        try {
+            ConcurrentHashMap<DomainPredicates, Entry> propertyEntries =
+                    entries.computeIfAbsent(property, p -> new ConcurrentHashMap<>());
+            if (propertyEntries.containsKey(predicates)) {
+                return;
+            }
+            int slot;
+            if (size < maximumSize) {
+                slot = size++;
+            } else {
+                slot = victim();
+                Entry evicted = slots[slot];
+                ConcurrentHashMap<DomainPredicates, Entry> evictedEntries = entries.get(evicted.property);
+                evictedEntries.remove(evicted.predicates);
+                if (evictedEntries.isEmpty() && evictedEntries != propertyEntries) {
+                    entries.remove(evicted.property);
+                }
+                evictionCount++;
+            }
+            Entry entry = new Entry(property, predicates, value, insertions++);
+            slots[slot] = entry;
+            propertyEntries.put(predicates, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int victim() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean sampled = maximumSize > SAMPLE_SIZE;
+        int samples = sampled ? SAMPLE_SIZE : maximumSize;
+        int victim = -1;
+        for (int i = 0; i < samples; i++) {
+            int slot = sampled ? random.nextInt(maximumSize) : i;
+            if (victim == -1 || evictsBefore(slots[slot], slots[victim])) {
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    private boolean evictsBefore(Entry entry, Entry other) {
+        if (eviction == CacheEviction.LEAST_FREQUENTLY_USED && entry.frequency != other.frequency) {
+            return entry.frequency < other.frequency;
+        }
+        return eviction == CacheEviction.LEAST_RECENTLY_USED
+                ? entry.lastAccess < other.lastAccess
+                : entry.insertion < other.insertion;
+    }
+
+    CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount, size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry {
+
+        private final ContextProperty property;
+
+        private final DomainPredicates predicates;
+
+        private final Object value;
+
+        private final long insertion;
+
+        private volatile long lastAccess;
+
+        private volatile int frequency = 1;
+
+        private Entry(ContextProperty property, DomainPredicates predicates, Object value, long insertion) {
+            this.property = property;
+            this.predicates = predicates;
+            this.value = value;
+            this.insertion = insertion;
+            this.lastAccess = System.nanoTime();
+        }
+
+        /**
+         * The frequency is not incremented atomically, so concurrent hits may count once
+         */
+        private void onHit(CacheEviction eviction) {
+            if (eviction == CacheEviction.LEAST_RECENTLY_USED) {
+                lastAccess = System.nanoTime();
+            } else {
+                frequency++;
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.kkarad.contextprop;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+final class ResolutionMetrics implements ResolutionMetricsMXBean {
+
+    static final int LATENCY_BUCKETS = 32;
+
+    private final LongAdder resolutions = new LongAdder();
+
+    private final LongAdder missingProperties = new LongAdder();
+
+    private final LongAdder contextHits = new LongAdder();
+
+    private final LongAdder defaultHits = new LongAdder();
+
+    private final LongAdder systemOverrides = new LongAdder();
+
+    private final LongAdder contextsScanned = new LongAdder();
+
+    private final LongAdder indexedMatches = new LongAdder();
+
+    private final ConcurrentMap<String, LongAdder> propertyResolutions = new ConcurrentHashMap<>();
+
+    private final LongAdder[] latencies = new LongAdder[LATENCY_BUCKETS];
+
+    ResolutionMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * An MBean of another type registered with the same name is not replaced
+     */
+    static synchronized void register(ResolutionMetrics metrics, String objectName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            try {
+                if (server.getObjectInstance(name).getClassName().equals(ResolutionMetrics.class.getName())) {
+                    server.unregisterMBean(name);
+                }
+            } catch (InstanceNotFoundException e) {
+                //not registered
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            throw new IllegalArgumentException(format("Metrics cannot be registered as MBean: %s", objectName), e);
+        }
+    }
+
+    void onResolution(String property, long nanos) {
+        resolutions.increment();
+        LongAdder counter = propertyResolutions.get(property);
+        if (counter == null) {
+            counter = propertyResolutions.computeIfAbsent(property, key -> new LongAdder());
+        }
+        counter.increment();
+        latencies[bucket(nanos)].increment();
+    }
+
+    static int bucket(long nanos) {
+        return Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+    }
+
+    void onMissingProperty() {
+        missingProperties.increment();
+    }
+
+    void onMatch(boolean contextHit, int scanned, boolean indexed) {
+        (contextHit ? contextHits : defaultHits).increment();
+        if (indexed) {
+            indexedMatches.increment();
+        } else {
+            contextsScanned.add(scanned);
+        }
+    }
+
+    void onSystemOverride() {
+        systemOverrides.increment();
+    }
+
+    @Override
+    public long getResolutionCount() {
+        return resolutions.sum();
+    }
+
+    @Override
+    public long getMissingPropertyCount() {
+        return missingProperties.sum();
+    }
+
+    @Override
+    public long getContextHitCount() {
+        return contextHits.sum();
+    }
+
+    @Override
+    public long getDefaultHitCount() {
+        return defaultHits.sum();
+    }
+
+    @Override
+    public long getSystemOverrideCount() {
+        return systemOverrides.sum();
+    }
+
+    @Override
+    public long getContextsScannedCount() {
+        return contextsScanned.sum();
+    }
+
+    @Override
+    public long getIndexedMatchCount() {
+        return indexedMatches.sum();
+    }
+
+    @Override
+    public Map<String, Long> getResolutionsPerProperty() {
+        Map<String, Long> counts = new TreeMap<>();
+        propertyResolutions.forEach((property, counter) -> counts.put(property, counter.sum()));
+        return counts;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[latencies.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = latencies[i].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        resolutions.reset();
+        missingProperties.reset();
+        contextHits.reset();
+        defaultHits.reset();
+        systemOverrides.reset();
+        contextsScanned.reset();
+        indexedMatches.reset();
+        propertyResolutions.clear();
+        for (LongAdder latency : latencies) {
+            latency.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResolutionMetrics(resolutions=" + getResolutionCount() + ", missing=" + getMissingPropertyCount() +
+                ", contextHits=" + getContextHitCount() + ", defaultHits=" + getDefaultHitCount() +
+                ", systemOverrides=" + getSystemOverrideCount() + ")";
+    }
+}
@@ -0,0 +1,32 @@
+package org.kkarad.contextprop;
+
+import java.util.Map;
+
+/**
+ * Live counters of the resolutions (see {@link ContextProperties.Builder#metrics()})
+ */
+public interface ResolutionMetricsMXBean {
+
+    long getResolutionCount();
+
+    long getMissingPropertyCount();
+
+    long getContextHitCount();
+
+    long getDefaultHitCount();
+
+    long getSystemOverrideCount();
+
+    long getContextsScannedCount();
+
+    long getIndexedMatchCount();
+
+    Map<String, Long> getResolutionsPerProperty();
+
+    /**
+     * Element i counts the calls which took less than 2^i nanoseconds
+     */
+    long[] getLatencyHistogram();
+
+    void reset();
+}
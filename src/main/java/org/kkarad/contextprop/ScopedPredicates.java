@@ -0,0 +1,154 @@
+package org.kkarad.contextprop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * Predicates which the {@code resolveX} methods without a predicates argument resolve against:
+ * <pre>
+ * ScopedPredicates.run(predicates, () -&gt; handle(request));
+ * ...
+ * String value = properties.resolveString("my.prop.key");
+ * </pre>
+ * The predicates are bound to a {@code ScopedValue} on Java 25+ and to a thread local otherwise.
+ */
+public final class ScopedPredicates {
+
+    private static final Scope SCOPE = scopedValueAvailable() ? new ScopedValueScope() : new ThreadLocalScope();
+
+    private ScopedPredicates() {
+    }
+
+    private static boolean scopedValueAvailable() {
+        try {
+            // ScopedValue is a preview API before Java 25
+            return Integer.parseInt(System.getProperty("java.specification.version", "1.8").replace("1.", "")) >= 25
+                    && Class.forName("java.lang.ScopedValue") != null;
+        } catch (NumberFormatException | ClassNotFoundException | LinkageError | SecurityException e) {
+            return false;
+        }
+    }
+
+    public static void run(DomainPredicates predicates, Runnable action) {
+        SCOPE.run(requireNonNull(predicates), action);
+    }
+
+    public static <T> T call(DomainPredicates predicates, Supplier<T> action) {
+        Object[] result = new Object[1];
+        SCOPE.run(requireNonNull(predicates), () -> result[0] = action.get());
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    public static boolean isBound() {
+        return SCOPE.current() != null;
+    }
+
+    public static DomainPredicates current() {
+        DomainPredicates predicates = SCOPE.current();
+        if (predicates == null) {
+            throw new IllegalStateException("No predicates are bound to the current scope");
+        }
+        return predicates;
+    }
+
+    private static DomainPredicates requireNonNull(DomainPredicates predicates) {
+        if (predicates == null) {
+            throw new IllegalArgumentException("Scoped predicates should not be null");
+        }
+        return predicates;
+    }
+
+    private interface Scope {
+
+        void run(DomainPredicates predicates, Runnable action);
+
+        DomainPredicates current();
+    }
+
+    private static final class ThreadLocalScope implements Scope {
+
+        private static final ThreadLocal<DomainPredicates> CURRENT = new ThreadLocal<>();
+
+        @Override
+        public void run(DomainPredicates predicates, Runnable action) {
+            DomainPredicates previous = CURRENT.get();
+            CURRENT.set(predicates);
+            try {
+                action.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        }
+
+        @Override
+        public DomainPredicates current() {
+            return CURRENT.get();
+        }
+    }
+
+    /**
+     * Through method handles, as the library is compiled for Java 8
+     */
+    private static final class ScopedValueScope implements Scope {
+
+        private static final MethodHandle WHERE;
+
+        private static final MethodHandle RUN;
+
+        private static final MethodHandle IS_BOUND;
+
+        private static final MethodHandle GET;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+                Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+                Object current = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue))
+                        .invoke();
+                WHERE = lookup.findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class))
+                        .bindTo(current)
+                        .asType(MethodType.methodType(Object.class, DomainPredicates.class));
+                RUN = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+                        .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+                IS_BOUND = lookup.findVirtual(scopedValue, "isBound", MethodType.methodType(boolean.class))
+                        .bindTo(current);
+                GET = lookup.findVirtual(scopedValue, "get", MethodType.methodType(Object.class))
+                        .bindTo(current)
+                        .asType(MethodType.methodType(DomainPredicates.class));
+            } catch (Throwable e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public void run(DomainPredicates predicates, Runnable action) {
+            try {
+                RUN.invokeExact(WHERE.invokeExact(predicates), action);
+            } catch (RuntimeException | java.lang.Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public DomainPredicates current() {
+            try {
+                return (boolean) IS_BOUND.invokeExact() ? (DomainPredicates) GET.invokeExact() : null;
+            } catch (RuntimeException | java.lang.Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,66 +1,101 @@
 package org.kkarad.contextprop;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.function.Function;
 
 public final class TypedProperties {
 
-    private final Properties properties;
+    private final Map<String, PropertyValue> properties;
 
-    TypedProperties(Properties properties) {
+    TypedProperties(Map<String, PropertyValue> properties) {
         this.properties = properties;
     }
 
     public String getString(String property) {
-        return propertyValue(property);
+        return propertyValue(property).text();
     }
 
     public Optional<String> getOptString(String property) {
-        return Optional.ofNullable(nullablePropertyValue(property));
+        PropertyValue value = nullablePropertyValue(property);
+        return Optional.ofNullable(value != null ? value.text() : null);
+    }
+
+    public boolean getBoolean(String property, boolean defaultValue) {
+        PropertyValue value = nonEmptyPropertyValue(property);
+        return value != null ? value.as(PropertyValue.BOOLEAN) : defaultValue;
+    }
+
+    public int getInteger(String property, int defaultValue) {
+        PropertyValue value = nonEmptyPropertyValue(property);
+        return value != null ? value.as(PropertyValue.INTEGER) : defaultValue;
+    }
+
+    public long getLong(String property, long defaultValue) {
+        PropertyValue value = nonEmptyPropertyValue(property);
+        return value != null ? value.as(PropertyValue.LONG) : defaultValue;
+    }
+
+    public double getDouble(String property, double defaultValue) {
+        PropertyValue value = nonEmptyPropertyValue(property);
+        return value != null ? value.as(PropertyValue.DOUBLE) : defaultValue;
     }
 
     public Optional<Boolean> getOptBoolean(String property) {
-        return Optional.ofNullable(nullablePropertyValue(property, TrueFalse::parse));
+        return Optional.ofNullable(nullablePropertyValue(property, PropertyValue.BOOLEAN));
     }
 
     public boolean getBoolean(String property) {
-        return propertyValue(property, TrueFalse::parse);
+        return propertyValue(property, PropertyValue.BOOLEAN);
     }
 
     public Optional<Integer> getOptInteger(String property) {
-        return Optional.ofNullable(nullablePropertyValue(property, Integer::valueOf));
+        return Optional.ofNullable(nullablePropertyValue(property, PropertyValue.INTEGER));
     }
 
     public int getInteger(String property) {
-        return propertyValue(property, Integer::valueOf);
+        return propertyValue(property, PropertyValue.INTEGER);
     }
 
     public Optional<Long> getOptLong(String property) {
-        return Optional.ofNullable(nullablePropertyValue(property, Long::valueOf));
+        return Optional.ofNullable(nullablePropertyValue(property, PropertyValue.LONG));
     }
 
     public long getLong(String property) {
-        return propertyValue(property, Long::valueOf);
+        return propertyValue(property, PropertyValue.LONG);
+    }
+
+    public Optional<Double> getOptDouble(String property) {
+        return Optional.ofNullable(nullablePropertyValue(property, PropertyValue.DOUBLE));
+    }
+
+    public double getDouble(String property) {
+        return propertyValue(property, PropertyValue.DOUBLE);
     }
 
     public Optional<BigDecimal> getOptBigDecimal(String property) {
-        return Optional.ofNullable(nullablePropertyValue(property, BigDecimal::new));
+        return Optional.ofNullable(nullablePropertyValue(property, PropertyValue.BIG_DECIMAL));
     }
 
     public BigDecimal getBigDecimal(String property) {
-        return propertyValue(property, BigDecimal::new);
+        return propertyValue(property, PropertyValue.BIG_DECIMAL);
+    }
+
+    /**
+     * Binds the properties onto the accessors of an interface or a record, keyed by name or {@link PropertyKey}
+     */
+    public <T> T bind(Class<T> type) {
+        return PropertyBinding.of(type).bind(this::nullablePropertyValue, PropertyNotFoundException::new);
     }
 
     private <T> T propertyValue(String property, Function<String, T> parseFunction) {
-        String value = propertyValue(property);
-        return parseFunction.apply(value);
+        return propertyValue(property).as(parseFunction);
     }
 
-    private String propertyValue(String property) {
-        String value = nullablePropertyValue(property);
-        if (isNullOrEmpty(value)) {
+    private PropertyValue propertyValue(String property) {
+        PropertyValue value = nullablePropertyValue(property);
+        if (value == null || value.isEmpty()) {
             throw new PropertyNotFoundException(property);
         }
 
@@ -68,15 +103,16 @@ public final class TypedProperties {
     }
 
     private <T> T nullablePropertyValue(String property, Function<String, T> parseFunction) {
-        String value = nullablePropertyValue(property);
-        return !isNullOrEmpty(value) ? parseFunction.apply(value) : null;
+        PropertyValue value = nonEmptyPropertyValue(property);
+        return value != null ? value.as(parseFunction) : null;
     }
 
-    private String nullablePropertyValue(String property) {
-        return properties.getProperty(property);
+    private PropertyValue nonEmptyPropertyValue(String property) {
+        PropertyValue value = nullablePropertyValue(property);
+        return value != null && !value.isEmpty() ? value : null;
     }
 
-    static boolean isNullOrEmpty(String value) {
-        return value == null || value.isEmpty();
+    private PropertyValue nullablePropertyValue(String property) {
+        return properties.get(property);
     }
 }
@@ -0,0 +1,94 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContextPropertiesLazyTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    private Properties unresolved;
+
+    @BeforeEach
+    void setUp() {
+        unresolved = new Properties();
+        unresolved.setProperty("my.property.a", "a");
+        unresolved.setProperty("my.property.a.CTXT(env[uat])", "a-uat");
+        unresolved.setProperty("my.property.b.CTXT(env[uat],loc[ldn])", "b-uat-ldn");
+    }
+
+    @Test
+    @DisplayName("A group is parsed when it is first resolved and its parse error is thrown by that resolution")
+    void aGroupIsParsedWhenItIsFirstResolvedAndItsParseErrorIsThrownByThatResolution() {
+        unresolved.setProperty("my.property.c.CTXT(env[uat]", "c-uat");
+
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).lazy().create(unresolved);
+
+        assertThat(properties.resolveString("my.property.a", predicates)).isEqualTo("a-uat");
+        assertThat(properties.resolveString("my.property.b", predicates)).isEqualTo("b-uat-ldn");
+        assertThat(properties.resolveOptString("my.property.x", predicates)).isEmpty();
+        assertThat(properties.nullableContextProperty("my.property.a"))
+                .isSameAs(properties.nullableContextProperty("my.property.a"));
+        assertThrows(ContextPropParseException.class, () -> properties.resolveString("my.property.c", predicates));
+    }
+
+    @Test
+    @DisplayName("Validate all parses all groups and reports the errors of every group")
+    void validateAllParsesAllGroupsAndReportsTheErrorsOfEveryGroup() {
+        unresolved.setProperty("my.property.c.CTXT(region[emea])", "c-emea");
+        unresolved.setProperty("my.property.d.CTXT(env[uat])", "d-uat");
+        unresolved.setProperty("my.property.d.CTXT(env[uat,prd])", "d-uat-prd");
+
+        ContextProperties lazy = ContextProperties.basedOnDomain(MyDomain.class).lazy().create(unresolved);
+        ContextProperties eager = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+
+        List<String> errors = lazy.validateAll();
+        assertThat(errors).hasSize(2);
+        assertThat(errors.get(0)).contains("'region'", "'my.property.c'");
+        assertThat(errors.get(1)).startsWith("Context scope conflict");
+        assertThat(eager.validateAll()).isEqualTo(errors);
+        assertThat(lazy.resolveString("my.property.b", predicates)).isEqualTo("b-uat-ldn");
+    }
+
+    @Test
+    @DisplayName("Concurrent first resolutions of a group share the same parsed group")
+    void concurrentFirstResolutionsOfAGroupShareTheSameParsedGroup() {
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).lazy().create(unresolved);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<ContextProperty>> futures = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return properties.nullableContextProperty("my.property.a");
+                }))
+                .collect(Collectors.toList());
+        start.countDown();
+
+        ContextProperty first = futures.get(0).join();
+        assertThat(first).isNotNull();
+        futures.forEach(future -> assertThat(future.join()).isSameAs(first));
+    }
+}
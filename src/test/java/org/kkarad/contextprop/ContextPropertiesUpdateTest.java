@@ -0,0 +1,106 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContextPropertiesUpdateTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private final ContextProperties.Builder builder = ContextProperties.basedOnDomain(MyDomain.class).incremental();
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    private Properties unresolved;
+
+    private ContextProperties previous;
+
+    @BeforeEach
+    void setUp() {
+        unresolved = new Properties();
+        unresolved.setProperty("my.property.a", "a");
+        unresolved.setProperty("my.property.a.CTXT(env[uat])", "a-uat");
+        unresolved.setProperty("my.property.b", "b");
+        unresolved.setProperty("my.property.b.CTXT(env[uat])", "b-uat");
+        unresolved.setProperty("my.property.c", "c");
+        previous = builder.create(unresolved);
+    }
+
+    @Test
+    @DisplayName("Only the property groups with changed entries are parsed again")
+    void onlyThePropertyGroupsWithChangedEntriesAreParsedAgain() {
+        unresolved.setProperty("my.property.a.CTXT(env[uat],loc[ldn])", "a-uat-ldn");
+        unresolved.remove("my.property.b.CTXT(env[uat])");
+
+        ContextProperties updated = builder.update(previous, unresolved);
+
+        assertThat(updated.resolveString("my.property.a", predicates)).isEqualTo("a-uat-ldn");
+        assertThat(updated.resolveString("my.property.b", predicates)).isEqualTo("b");
+        assertThat(updated.resolveString("my.property.c", predicates)).isEqualTo("c");
+        assertThat(updated.nullableContextProperty("my.property.a"))
+                .isNotSameAs(previous.nullableContextProperty("my.property.a"));
+        assertThat(updated.nullableContextProperty("my.property.b"))
+                .isNotSameAs(previous.nullableContextProperty("my.property.b"));
+        assertThat(updated.nullableContextProperty("my.property.c"))
+                .isSameAs(previous.nullableContextProperty("my.property.c"));
+
+        assertThat(previous.resolveString("my.property.a", predicates)).isEqualTo("a-uat");
+        assertThat(previous.resolveString("my.property.b", predicates)).isEqualTo("b-uat");
+    }
+
+    @Test
+    @DisplayName("Property groups which are added or removed are added to or removed from the updated properties")
+    void propertyGroupsWhichAreAddedOrRemovedAreAddedToOrRemovedFromTheUpdatedProperties() {
+        unresolved.remove("my.property.c");
+        unresolved.setProperty("my.property.d.CTXT(env[uat])", "d-uat");
+
+        ContextProperties updated = builder.update(previous, unresolved);
+
+        assertThat(updated.resolveOptString("my.property.c", predicates)).isEmpty();
+        assertThat(updated.resolveString("my.property.d", predicates)).isEqualTo("d-uat");
+        assertThat(updated.resolveString("my.property.a", predicates)).isEqualTo("a-uat");
+    }
+
+    @Test
+    @DisplayName("Updates start a new dictionary once most of the values of the shared one are unused")
+    void updatesStartANewDictionaryOnceMostOfTheValuesOfTheSharedOneAreUnused() {
+        ConditionCodes codes = previous.nullableContextProperty("my.property.c").codes();
+        ContextProperties updated = previous;
+        int updates = 0;
+        while (updated.nullableContextProperty("my.property.c").codes() == codes && updates < 100) {
+            unresolved.remove("my.property.a.CTXT(env[v" + (updates - 1) + "])");
+            unresolved.setProperty("my.property.a.CTXT(env[v" + updates + "])", "a-v" + updates);
+            updated = builder.update(updated, unresolved);
+            updates++;
+        }
+
+        assertThat(updates).isBetween(2, 10);
+        assertThat(updated.resolveString("my.property.a", predicates)).isEqualTo("a-uat");
+        assertThat(updated.resolveString("my.property.a", DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "v" + (updates - 1))
+                .predicate("loc", "ldn")
+                .create())).isEqualTo("a-v" + (updates - 1));
+        assertThat(ContextProperties.basedOnDomain(MyDomain.class).create(unresolved).nullableContextProperty("my.property.c"))
+                .isNotSameAs(updated.nullableContextProperty("my.property.c"));
+    }
+
+    @Test
+    @DisplayName("Parse error of a changed entry is thrown by the update")
+    void parseErrorOfAChangedEntryIsThrownByTheUpdate() {
+        unresolved.setProperty("my.property.a.CTXT(env[uat]", "a-uat");
+
+        assertThrows(ContextPropParseException.class, () -> builder.update(previous, unresolved));
+    }
+}
@@ -0,0 +1,81 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContextPropertiesViewTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    private Properties unresolved;
+
+    @BeforeEach
+    void setUp() {
+        unresolved = new Properties();
+        unresolved.setProperty("db.pool.size", "10");
+        unresolved.setProperty("db.pool.size.CTXT(env[uat])", "2");
+        unresolved.setProperty("db.pool.timeout", "30");
+        unresolved.setProperty("db.url", "jdbc:h2:mem");
+        unresolved.setProperty("fix.session.id", "SESSION");
+        unresolved.setProperty("fix.session.id.CTXT(loc[ldn])", "SESSION-LDN");
+    }
+
+    @Test
+    @DisplayName("A view resolves the properties under its prefix by their stripped keys")
+    void aViewResolvesThePropertiesUnderItsPrefixByTheirStrippedKeys() {
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+
+        ContextProperties db = properties.view("db.");
+        ContextProperties pool = db.view("pool.");
+
+        assertThat(db.keys()).containsOnly("pool.size", "pool.timeout", "url");
+        assertThat(pool.keys()).containsOnly("size", "timeout");
+        assertThat(pool.resolveInteger("size", predicates)).isEqualTo(2);
+        assertThat(db.resolveString("url", predicates)).isEqualTo("jdbc:h2:mem");
+        assertThat(pool.nullableContextProperty("size")).isSameAs(properties.nullableContextProperty("db.pool.size"));
+        assertThat(pool.resolveOptString("url", predicates)).isEmpty();
+        assertThrows(PropertyNotFoundException.class, () -> pool.resolveString("db.pool.size", predicates));
+        assertThat(properties.view("cache.").keys()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The properties under a prefix are resolved at once by their stripped keys")
+    void thePropertiesUnderAPrefixAreResolvedAtOnceByTheirStrippedKeys() {
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+
+        TypedProperties pool = properties.resolveTyped("db.pool.", predicates);
+        TypedProperties session = properties.view("fix.").resolveTyped("session.", predicates);
+
+        assertThat(pool.getInteger("size")).isEqualTo(2);
+        assertThat(pool.getInteger("timeout")).isEqualTo(30);
+        assertThat(pool.getOptString("db.url")).isEmpty();
+        assertThat(session.getString("id")).isEqualTo("SESSION-LDN");
+    }
+
+    @Test
+    @DisplayName("A view of lazily created properties parses only the groups under its prefix")
+    void aViewOfLazilyCreatedPropertiesParsesOnlyTheGroupsUnderItsPrefix() {
+        unresolved.setProperty("fix.session.port.CTXT(env[uat]", "9876");
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).lazy().create(unresolved);
+
+        ContextProperties pool = properties.view("db.pool.");
+
+        assertThat(pool.resolveInteger("size", predicates)).isEqualTo(2);
+        assertThat(pool.validateAll()).isEmpty();
+        assertThrows(ContextPropParseException.class, () -> properties.view("fix."));
+    }
+}
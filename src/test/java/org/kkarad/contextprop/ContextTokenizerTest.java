@@ -0,0 +1,129 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextTokenizerTest {
+
+    private final RecordingVisitor tokenizerVisitor = new RecordingVisitor();
+
+    private final RecordingVisitor patternVisitor = new RecordingVisitor();
+
+    private final ContextTokenizer tokenizer = new ContextTokenizer(".CTXT", '(', ')', '[', ']', '|', ',', tokenizerVisitor);
+
+    private final ContextPattern contextPattern = new ContextPattern(".CTXT", '(', ')',
+            new ConditionPattern('[', ']', patternVisitor, "|", ','), patternVisitor);
+
+    @Test
+    @DisplayName("Well formed keys are tokenized like the context pattern and other keys are left to it")
+    void wellFormedKeysAreTokenizedLikeTheContextPatternAndOtherKeysAreLeftToIt() {
+        for (String key : Arrays.asList(
+                "my.property",
+                "",
+                "my.property.CTXT(env[uat])",
+                "my.property.CTXT(env[uat],loc[ldn|nyk],group[internal])",
+                "my.property.CTXT(loc[ldn|nyk||])",
+                "my.property.CTXT(loc[|])",
+                "my.property.CTXT(a,b[x])")) {
+            assertThat(tokenizer.tokenize(key, "value")).as(key).isTrue();
+            assertThat(tokenizerVisitor.calls).as(key).isEqualTo(parseWithPattern(key));
+            tokenizerVisitor.calls.clear();
+        }
+        for (String key : Arrays.asList(
+                "my.property.CTX(env[uat])",
+                "my.property.CTXT()",
+                "my.property.CTXT(env[])",
+                "my.property.CTXT(env[dev]location[hkg])",
+                "my.property.CTXT(env[test]}",
+                ".CTXT(env[test])",
+                "my.property.CTXT(loc[|ldn])",
+                "my.property.CTXT(env[dev],)")) {
+            assertThat(tokenizer.tokenize(key, "value")).as(key).isFalse();
+            assertThat(tokenizerVisitor.calls).as(key).isEmpty();
+            assertThat(parseWithPattern(key)).as(key).contains("error");
+        }
+    }
+
+    @Test
+    @DisplayName("Random keys are either tokenized like the context pattern or left to it")
+    void randomKeysAreEitherTokenizedLikeTheContextPatternOrLeftToIt() {
+        Random random = new Random(7);
+        String[] tokens = {"a", "b", ".", ".CTXT", ".CTXT(", "CTX", "TXT", "(", ")", "[", "]", ",", "|", "env[x]"};
+        int tokenized = 0;
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder key = new StringBuilder(random.nextBoolean() ? "key.CTXT(" : "key");
+            int noOfTokens = random.nextInt(10);
+            for (int t = 0; t < noOfTokens; t++) {
+                key.append(tokens[random.nextInt(tokens.length)]);
+            }
+            if (random.nextBoolean()) {
+                key.append(')');
+            }
+
+            tokenizerVisitor.calls.clear();
+            if (tokenizer.tokenize(key.toString(), "value")) {
+                tokenized++;
+                assertThat(tokenizerVisitor.calls).as(key.toString()).isEqualTo(parseWithPattern(key.toString()));
+            } else {
+                assertThat(tokenizerVisitor.calls).as(key.toString()).isEmpty();
+            }
+        }
+        assertThat(tokenized).isGreaterThan(1000);
+    }
+
+    private List<String> parseWithPattern(String keyText) {
+        patternVisitor.calls.clear();
+        contextPattern.startProperty(keyText.length());
+        for (int i = 0; i < keyText.length() && !contextPattern.hasError(); i++) {
+            contextPattern.traverse(keyText.charAt(i));
+        }
+        if (!contextPattern.hasError()) {
+            contextPattern.endProperty("value");
+        }
+        if (contextPattern.hasError()) {
+            patternVisitor.calls.add("error");
+        }
+        return new ArrayList<>(patternVisitor.calls);
+    }
+
+    private static final class RecordingVisitor implements ParseVisitor {
+
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void startParse() {
+        }
+
+        @Override
+        public void startProperty(String key) {
+            calls.add("startProperty " + key);
+        }
+
+        @Override
+        public void propertyCondition(String propertyKey, String conditionKey, String[] conditionValues) {
+            calls.add("propertyCondition " + propertyKey + " " + conditionKey + " " + Arrays.toString(conditionValues));
+        }
+
+        @Override
+        public void endProperty(String key, String value) {
+            calls.add("endProperty " + key + " " + value);
+        }
+
+        @Override
+        public void endParse() {
+        }
+
+        @Override
+        public Collection<ContextProperty> properties() {
+            return null;
+        }
+    }
+}
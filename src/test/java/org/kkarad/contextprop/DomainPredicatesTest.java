@@ -0,0 +1,87 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DomainPredicatesTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    @SuppressWarnings("unused")
+    enum OtherDomain {
+        loc, env
+    }
+
+    @Test
+    @DisplayName("Predicates built by enum keys or by key names are equal and keys outside of the domain are rejected")
+    void predicatesBuiltByEnumKeysOrByKeyNamesAreEqualAndKeysOutsideOfTheDomainAreRejected() {
+        DomainPredicates byEnum = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate(MyDomain.loc, "ldn")
+                .predicate(MyDomain.env, "uat")
+                .create();
+        DomainPredicates byName = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "uat")
+                .predicate("loc", "ldn")
+                .create();
+
+        assertThat(byEnum).isEqualTo(byName);
+        assertThat(byEnum.hashCode()).isEqualTo(byName.hashCode());
+        assertThat(byEnum.toString()).isEqualTo("{env=uat, loc=ldn}");
+        assertThat(byEnum.value("loc")).isEqualTo("ldn");
+        assertThat(byEnum.value(0)).isEqualTo("uat");
+
+        DomainPredicates.Builder builder = DomainPredicates.basedOnDomain(MyDomain.class);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.predicate("region", "emea"));
+        assertThrows(IllegalArgumentException.class, () -> builder.predicate(OtherDomain.loc, "ldn"));
+        assertThrows(IllegalArgumentException.class, builder.predicate(MyDomain.env, "uat")::create);
+        assertThrows(IllegalStateException.class, () -> builder.predicate(MyDomain.loc, "ldn").create()
+                .set(MyDomain.env, "prd"));
+    }
+
+    @Test
+    @DisplayName("Reusable predicates resolve their current values and the cache keeps a copy of them")
+    void reusablePredicatesResolveTheirCurrentValuesAndTheCacheKeepsACopyOfThem() {
+        Properties unresolved = new Properties();
+        unresolved.setProperty("my.property", "default");
+        unresolved.setProperty("my.property.CTXT(env[uat])", "uat");
+        unresolved.setProperty("my.property.CTXT(env[prd])", "prd");
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class)
+                .resolutionCache(10, CacheEviction.LEAST_RECENTLY_USED)
+                .create(unresolved);
+
+        DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate(MyDomain.env, "uat")
+                .predicate(MyDomain.loc, "ldn")
+                .createReusable();
+        int[] valueIds = predicates.valueIds(properties.nullableContextProperty("my.property").codes());
+
+        assertThat(properties.resolveString("my.property", predicates)).isEqualTo("uat");
+        assertThat(predicates.set(MyDomain.env, "prd").set("loc", "nyc")).isSameAs(predicates);
+        assertThat(properties.resolveString("my.property", predicates)).isEqualTo("prd");
+        assertThat(predicates.valueIds(properties.nullableContextProperty("my.property").codes())).isSameAs(valueIds);
+        predicates.set(MyDomain.env, "dev");
+        assertThat(properties.resolveString("my.property", predicates)).isEqualTo("default");
+        predicates.set(MyDomain.env, "uat").set(MyDomain.loc, "ldn");
+        assertThat(properties.resolveString("my.property", predicates)).isEqualTo("uat");
+        assertThat(properties.cacheStats().get().hitCount()).isEqualTo(1);
+
+        ContextProperties other = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+        ConditionCodes codes = properties.nullableContextProperty("my.property").codes();
+        ConditionCodes otherCodes = other.nullableContextProperty("my.property").codes();
+        int[] otherValueIds = predicates.valueIds(otherCodes);
+        predicates.set(MyDomain.env, "prd");
+        assertThat(other.resolveString("my.property", predicates)).isEqualTo("prd");
+        assertThat(properties.resolveString("my.property", predicates)).isEqualTo("prd");
+        assertThat(predicates.valueIds(codes)).isSameAs(valueIds);
+        assertThat(predicates.valueIds(otherCodes)).isSameAs(otherValueIds);
+    }
+}
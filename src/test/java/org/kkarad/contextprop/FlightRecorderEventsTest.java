@@ -0,0 +1,120 @@
+package org.kkarad.contextprop;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecorderEventsTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private static final String PROPERTIES = "my.property.a=a\n" +
+            "my.property.a.CTXT(env[uat])=a-uat\n" +
+            "my.property.b=b\n";
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("contextprop", ".jfr");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Load phases are recorded with their key counts")
+    void loadPhasesAreRecordedWithTheirKeyCounts() throws IOException {
+        try (Recording recording = new Recording()) {
+            recording.enable("org.kkarad.contextprop.LoadPhase");
+            recording.start();
+            ContextProperties.basedOnDomain(MyDomain.class).create(new StringReader(PROPERTIES));
+            ContextProperties.basedOn(predicates).resolve(new StringReader(PROPERTIES));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> phases = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("org.kkarad.contextprop.LoadPhase"))
+                .map(event -> event.getString("phase") + ":" + event.getInt("keyCount"))
+                .collect(Collectors.toList());
+        assertThat(phases).containsExactly(
+                "source read:3", "parse:2", "validate:2",
+                "source read:3", "parse:2", "validate:2", "resolve:2");
+    }
+
+    @Test
+    @DisplayName("Resolutions are recorded at a limited rate with the matched context")
+    void resolutionsAreRecordedAtALimitedRateWithTheMatchedContext() throws IOException {
+        Properties unresolved = new Properties();
+        unresolved.setProperty("my.property.a", "a");
+        unresolved.setProperty("my.property.a.CTXT(env[uat])", "a-uat");
+        unresolved.setProperty("my.property.b", "b");
+        for (int i = 0; i < ContextIndex.MIN_CONTEXTS; i++) {
+            unresolved.setProperty("my.property.c.CTXT(env[env" + i + "])", "c-" + i);
+        }
+        unresolved.setProperty("my.property.c.CTXT(env[uat])", "c-uat");
+        unresolved.setProperty("my.property.c.CTXT(env[uat],loc[ldn])", "c-uat-ldn");
+        ContextProperties recorded = ContextProperties.basedOnDomain(MyDomain.class)
+                .resolutionEvents(Integer.MAX_VALUE)
+                .create(unresolved);
+        ContextProperties limited = ContextProperties.basedOnDomain(MyDomain.class)
+                .resolutionEvents(1)
+                .create(unresolved);
+        ContextProperties unrecorded = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.kkarad.contextprop.Resolution");
+            recording.start();
+            recorded.resolveString("my.property.a", predicates);
+            recorded.resolveString("my.property.b", predicates);
+            recorded.resolveString("my.property.c", predicates);
+            unrecorded.resolveString("my.property.a", predicates);
+            for (int i = 0; i < 100; i++) {
+                limited.resolveString("my.property.b", predicates);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("org.kkarad.contextprop.Resolution"))
+                .collect(Collectors.toList());
+        assertThat(events).hasSize(4);
+        assertThat(events.get(0).getString("property")).isEqualTo("my.property.a");
+        assertThat(events.get(0).getInt("scannedContexts")).isEqualTo(1);
+        assertThat(events.get(0).getInt("matchingContexts")).isEqualTo(1);
+        assertThat(events.get(0).getString("context")).contains("env", "uat");
+        assertThat(events.get(1).getString("property")).isEqualTo("my.property.b");
+        assertThat(events.get(1).getString("context")).isNull();
+        assertThat(events.get(2).getString("property")).isEqualTo("my.property.c");
+        assertThat(events.get(2).getBoolean("indexed")).isTrue();
+        assertThat(events.get(2).getInt("scannedContexts")).isEqualTo(2);
+        assertThat(events.get(2).getInt("matchingContexts")).isEqualTo(2);
+        assertThat(events.get(3).getString("property")).isEqualTo("my.property.b");
+    }
+}
@@ -0,0 +1,55 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyIndexTest {
+
+    @Test
+    @DisplayName("Every key is found at its ordinal and keys which are not indexed are not found")
+    void everyKeyIsFoundAtItsOrdinalAndKeysWhichAreNotIndexedAreNotFound() {
+        List<String> keys = IntStream.range(0, 1000)
+                .mapToObj(i -> "my.property." + i)
+                .collect(Collectors.toList());
+
+        KeyIndex index = new KeyIndex(keys);
+
+        assertThat(index.size()).isEqualTo(1000);
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(index.ordinal(keys.get(i))).isEqualTo(i);
+            assertThat(index.key(i)).isEqualTo(keys.get(i));
+        }
+        assertThat(index.ordinal("my.property.1000")).isEqualTo(KeyIndex.NONE);
+        assertThat(index.ordinal("")).isEqualTo(KeyIndex.NONE);
+    }
+
+    @Test
+    @DisplayName("Keys with the same hash code are told apart")
+    void keysWithTheSameHashCodeAreToldApart() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+        KeyIndex index = new KeyIndex(Arrays.asList("Aa", "BB", "AaAa"));
+
+        assertThat(index.ordinal("Aa")).isEqualTo(0);
+        assertThat(index.ordinal("BB")).isEqualTo(1);
+        assertThat(index.ordinal("AaAa")).isEqualTo(2);
+        assertThat(index.ordinal("BBBB")).isEqualTo(KeyIndex.NONE);
+    }
+
+    @Test
+    @DisplayName("An empty index finds no keys")
+    void anEmptyIndexFindsNoKeys() {
+        KeyIndex index = new KeyIndex(Collections.emptyList());
+
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.ordinal("my.property")).isEqualTo(KeyIndex.NONE);
+    }
+}
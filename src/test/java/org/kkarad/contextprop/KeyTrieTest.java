@@ -0,0 +1,70 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyTrieTest {
+
+    @Test
+    @DisplayName("The keys with a prefix are found in key order")
+    void theKeysWithAPrefixAreFoundInKeyOrder() {
+        KeyIndex index = new KeyIndex(Arrays.asList("db.pool.size", "db.url", "db.pool", "fix.session.id", "db.pool.max"));
+        KeyTrie trie = new KeyTrie(index);
+
+        assertThat(keys(index, trie, "db.pool")).containsExactly("db.pool", "db.pool.max", "db.pool.size");
+        assertThat(keys(index, trie, "db.pool.")).containsExactly("db.pool.max", "db.pool.size");
+        assertThat(keys(index, trie, "db.")).containsExactly("db.pool", "db.pool.max", "db.pool.size", "db.url");
+        assertThat(keys(index, trie, "db.pool.size")).containsExactly("db.pool.size");
+        assertThat(keys(index, trie, "")).hasSize(5);
+        assertThat(keys(index, trie, "db.pool.size.min")).isEmpty();
+        assertThat(keys(index, trie, "db.po0l")).isEmpty();
+        assertThat(keys(index, trie, "x")).isEmpty();
+        assertThat(new KeyTrie(new KeyIndex(Collections.emptyList())).ordinals("")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The keys found by the trie are the keys which start with the prefix")
+    void theKeysFoundByTheTrieAreTheKeysWhichStartWithThePrefix() {
+        Random random = new Random(7);
+        Set<String> keySet = new LinkedHashSet<>();
+        while (keySet.size() < 500) {
+            keySet.add(randomKey(random));
+        }
+        List<String> keys = new ArrayList<>(keySet);
+        KeyIndex index = new KeyIndex(keys);
+        KeyTrie trie = new KeyTrie(index);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            String prefix = key.substring(0, random.nextInt(key.length() + 1));
+            List<String> expected = keys.stream()
+                    .filter(k -> k.startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            assertThat(keys(index, trie, prefix)).as(prefix).isEqualTo(expected);
+        }
+    }
+
+    private static String randomKey(Random random) {
+        return IntStream.range(0, 1 + random.nextInt(4))
+                .mapToObj(i -> String.valueOf((char) ('a' + random.nextInt(3))) + random.nextInt(3))
+                .collect(Collectors.joining("."));
+    }
+
+    private static List<String> keys(KeyIndex index, KeyTrie trie, String prefix) {
+        return Arrays.stream(trie.ordinals(prefix)).mapToObj(index::key).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,117 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedContextPropertiesTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc, usr
+    }
+
+    @SuppressWarnings("unused")
+    enum OtherDomain {
+        env, loc
+    }
+
+    private static final int NO_OF_USERS = 100;
+
+    private final ContextProperties.Builder builder = ContextProperties.basedOnDomain(MyDomain.class);
+
+    private Path file;
+
+    private ContextProperties properties;
+
+    private MappedContextProperties mapped;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Properties unresolved = new Properties();
+        unresolved.setProperty("my.property.a", "a");
+        unresolved.setProperty("my.property.a.CTXT(env[uat,prd])", "a-env");
+        unresolved.setProperty("my.property.a.CTXT(env[uat],loc[ldn,nyk])", "a-env-loc");
+        unresolved.setProperty("my.property.b.CTXT(loc[ldn])", "12");
+        unresolved.setProperty("my.property.empty", "");
+        unresolved.setProperty("my.property.users", "default");
+        unresolved.setProperty("my.property.users.CTXT(loc[par])", "par");
+        for (int i = 0; i < NO_OF_USERS; i++) {
+            unresolved.setProperty("my.property.users.CTXT(usr[user" + i + "])", "user-" + i);
+            unresolved.setProperty("my.property.users.CTXT(usr[user" + i + "],env[prd])", "user-prd-" + i);
+        }
+        properties = builder.create(unresolved);
+
+        file = Files.createTempFile("contextprop", ".mapped");
+        builder.writeMapped(properties, file);
+        mapped = builder.createMapped(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Mapped properties resolve like the properties they are written from")
+    void mappedPropertiesResolveLikeThePropertiesTheyAreWrittenFrom() throws IOException {
+        String[] keys = {"my.property.a", "my.property.b", "my.property.empty", "my.property.users", "my.property.x"};
+        for (String env : new String[]{"uat", "prd", "dev"}) {
+            for (String loc : new String[]{"ldn", "nyk", "par"}) {
+                for (String usr : new String[]{"user0", "user42", "user99", "user100"}) {
+                    DomainPredicates predicates = predicates(env, loc, usr);
+                    for (String key : keys) {
+                        assertThat(mapped.resolveOptString(key, predicates))
+                                .as(key + " " + predicates)
+                                .isEqualTo(properties.resolveOptString(key, predicates));
+                    }
+                }
+            }
+        }
+        assertThat(mapped.size()).isEqualTo(4);
+        assertThat(mapped.containsProperty("my.property.users")).isTrue();
+        assertThat(mapped.containsProperty("my.property.x")).isFalse();
+
+        MappedContextProperties other = builder.createMapped(file);
+        DomainPredicates predicates = predicates("uat", "ldn", "user0");
+        int[] valueIds = predicates.valueIds(mapped);
+        int[] otherValueIds = predicates.valueIds(other);
+        assertThat(predicates.valueIds(mapped)).isSameAs(valueIds);
+        assertThat(predicates.valueIds(other)).isSameAs(otherValueIds);
+    }
+
+    @Test
+    @DisplayName("Missing or empty values are handled like the properties they are written from and files of other domains are rejected")
+    void missingOrEmptyValuesAreHandledLikeThePropertiesTheyAreWrittenFromAndFilesOfOtherDomainsAreRejected() {
+        DomainPredicates predicates = predicates("uat", "ldn", "user0");
+
+        assertThat(mapped.resolveInteger("my.property.b", predicates)).isEqualTo(12);
+        assertThat(mapped.resolveString("my.property.b", predicates))
+                .isSameAs(mapped.resolveString("my.property.b", predicates));
+        assertThat(mapped.resolveInteger("my.property.empty", predicates, 7)).isEqualTo(7);
+        assertThat(mapped.resolveOptInteger("my.property.x", predicates)).isEmpty();
+        assertThrows(PropertyNotFoundException.class, () -> mapped.resolveString("my.property.empty", predicates));
+        assertThrows(PropertyNotFoundException.class,
+                () -> mapped.resolveString("my.property.b", predicates("uat", "nyk", "user0")));
+        assertThrows(PropertyNotFoundException.class, () -> mapped.resolveString("my.property.x", predicates));
+        assertThrows(IllegalArgumentException.class,
+                () -> ContextProperties.basedOnDomain(OtherDomain.class).createMapped(file));
+    }
+
+    private DomainPredicates predicates(String env, String loc, String usr) {
+        return DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", env)
+                .predicate("loc", loc)
+                .predicate("usr", usr)
+                .create();
+    }
+}
@@ -0,0 +1,97 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelPropertyParserTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private ForkJoinPool pool;
+
+    private Properties unresolved;
+
+    private DomainPredicates predicates;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        unresolved = new Properties();
+        for (int p = 0; p < 2000; p++) {
+            unresolved.setProperty("my.property." + p, "default" + p);
+            for (int c = 0; c < 5; c++) {
+                unresolved.setProperty("my.property." + p + ".CTXT(env[env" + c + "],loc[ldn,loc" + c + "])", p + "-" + c);
+            }
+        }
+        predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "env3")
+                .predicate("loc", "ldn")
+                .create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Parallel parse results to the same property groups as the sequential parse")
+    void parallelParseResultsToTheSamePropertyGroupsAsTheSequentialParse() {
+        Domain domain = Domain.create(MyDomain.class);
+        ContextProperties.Builder builder = ContextProperties.basedOnDomain(MyDomain.class);
+
+        Map<String, String> sequential = groups(builder.createParser(domain).parse(unresolved));
+        Map<String, String> parallel = groups(builder.parallel(pool).createParallelParser(domain).parse(unresolved));
+
+        assertThat(parallel).hasSize(2000).isEqualTo(sequential);
+    }
+
+    @Test
+    @DisplayName("Parallel resolution results to the same properties and resolution order as the sequential one")
+    void parallelResolutionResultsToTheSamePropertiesAndResolutionOrderAsTheSequentialOne() {
+        List<String> sequentialOrder = new ArrayList<>();
+        Properties sequential = ContextProperties.basedOn(predicates)
+                .resolutionConsumer((property, systemOverride, value, isLast) -> sequentialOrder.add(property + isLast))
+                .resolve(unresolved);
+        List<String> parallelOrder = new ArrayList<>();
+        Properties parallel = ContextProperties.basedOn(predicates)
+                .parallel(pool)
+                .resolutionConsumer((property, systemOverride, value, isLast) -> parallelOrder.add(property + isLast))
+                .resolve(unresolved);
+
+        assertThat(parallel).isEqualTo(sequential).containsEntry("my.property.7", "7-3");
+        assertThat(parallelOrder).hasSize(2000).isEqualTo(sequentialOrder);
+    }
+
+    @Test
+    @DisplayName("Parse error of any chunk is thrown by the parallel parse")
+    void parseErrorOfAnyChunkIsThrownByTheParallelParse() {
+        unresolved.setProperty("my.property.CTXT(env[uat]", "value");
+
+        assertThrows(ContextPropParseException.class, () -> ContextProperties.basedOnDomain(MyDomain.class)
+                .parallel(pool)
+                .create(unresolved));
+    }
+
+    private static Map<String, String> groups(Collection<ContextProperty> properties) {
+        Map<String, String> groups = new HashMap<>();
+        properties.forEach(property -> groups.put(property.key(), property.toString()));
+        return groups;
+    }
+}
@@ -0,0 +1,115 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PropertyBindingTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    interface Pool {
+        int size();
+
+        long timeout();
+
+        @PropertyKey("max.idle")
+        Optional<Integer> maxIdle();
+
+        Optional<BigDecimal> ratio();
+    }
+
+    interface Session {
+        String id();
+
+        boolean enabled();
+    }
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    @Test
+    @DisplayName("Resolved properties are bound onto the accessors of an interface")
+    void resolvedPropertiesAreBoundOntoTheAccessorsOfAnInterface() {
+        Map<String, PropertyValue> values = new HashMap<>();
+        values.put("size", new PropertyValue("10"));
+        values.put("timeout", new PropertyValue("30"));
+        values.put("max.idle", new PropertyValue("2"));
+        values.put("ratio", new PropertyValue(""));
+        TypedProperties properties = new TypedProperties(values);
+
+        Pool pool = properties.bind(Pool.class);
+
+        assertThat(pool.size()).isEqualTo(10);
+        assertThat(pool.timeout()).isEqualTo(30L);
+        assertThat(pool.maxIdle()).contains(2);
+        assertThat(pool.ratio()).isEmpty();
+        assertThat(pool).isEqualTo(properties.bind(Pool.class));
+        assertThat(pool.hashCode()).isEqualTo(properties.bind(Pool.class).hashCode());
+        assertThat(pool.toString()).isEqualTo("Pool{max.idle=Optional[2], ratio=Optional.empty, size=10, timeout=30}");
+        assertThat(PropertyBinding.of(Pool.class)).isSameAs(PropertyBinding.of(Pool.class));
+        assertThrows(PropertyNotFoundException.class, () -> new TypedProperties(Collections.emptyMap()).bind(Pool.class));
+        assertThrows(IllegalArgumentException.class, () -> properties.bind(String.class));
+        assertThrows(IllegalArgumentException.class, () -> properties.bind(Comparable.class));
+    }
+
+    @Test
+    @DisplayName("The properties under the prefix of a view are bound against the predicates")
+    void thePropertiesUnderThePrefixOfAViewAreBoundAgainstThePredicates() {
+        Properties unresolved = new Properties();
+        unresolved.setProperty("fix.session.id", "SESSION");
+        unresolved.setProperty("fix.session.id.CTXT(loc[ldn])", "SESSION-LDN");
+        unresolved.setProperty("fix.session.enabled", "false");
+        unresolved.setProperty("fix.session.enabled.CTXT(env[uat])", "true");
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+
+        Session session = properties.view("fix.session.").bind(Session.class, predicates);
+
+        assertThat(session.id()).isEqualTo("SESSION-LDN");
+        assertThat(session.enabled()).isTrue();
+        assertThrows(PropertyNotFoundException.class, () -> properties.bind(Session.class, predicates));
+    }
+
+    @Test
+    @DisplayName("Resolved properties are bound onto the components of a record")
+    void resolvedPropertiesAreBoundOntoTheComponentsOfARecord() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null && compiler.getSourceVersions().stream().anyMatch(v -> v.ordinal() >= 16));
+        Path dir = Files.createTempDirectory("contextprop");
+        Path source = Files.write(dir.resolve("Pool.java"), (
+                "public record Pool(int size, @org.kkarad.contextprop.PropertyKey(\"max.idle\") "
+                        + "java.util.Optional<Integer> maxIdle) {}").getBytes());
+        assertThat(compiler.run(null, null, null, "-d", dir.toString(), "-cp",
+                System.getProperty("java.class.path"), source.toString())).isEqualTo(0);
+        Map<String, PropertyValue> values = new HashMap<>();
+        values.put("size", new PropertyValue("10"));
+        values.put("max.idle", new PropertyValue("2"));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+            Object pool = new TypedProperties(values).bind(loader.loadClass("Pool"));
+
+            assertThat(pool.toString()).isEqualTo("Pool[size=10, maxIdle=Optional[2]]");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.kkarad.contextprop;
 import org.junit.jupiter.api.*;
 import org.mockito.InOrder;
 
+import java.io.StringReader;
 import java.util.Collection;
 import java.util.Properties;
 import java.util.stream.Stream;
@@ -35,8 +36,19 @@ class PropertyParserTest {
                         ','),
                 visitor);
 
+        ContextTokenizer tokenizer = new ContextTokenizer(
+                ".CTXT",
+                '(',
+                ')',
+                '[',
+                ']',
+                '|',
+                ',',
+                visitor);
+
         parser = new PropertyParser(
                 visitor,
+                tokenizer,
                 contextPattern);
     }
 
@@ -236,4 +248,13 @@ class PropertyParserTest {
 
         assertThrows(ContextPropParseException.class, () -> parser.parse(unresolved));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Abort parsing when a streamed source repeats a property key")
+    void abortParsingWhenAStreamedSourceRepeatsAPropertyKey() {
+        PropertySource source = PropertySource.of(new StringReader(
+                "my.property.key.CTXT(location[uk])=myValue\nmy.property.key.CTXT(location[uk])=otherValue"));
+
+        assertThrows(ContextPropParseException.class, () -> parser.parse(source));
+    }
+}
@@ -0,0 +1,101 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kkarad.contextprop.Context.Builder.context;
+import static org.kkarad.contextprop.JdkCollections.asSet;
+import static org.kkarad.contextprop.TestBuilders.aContextProperty;
+
+class PropertyResolverTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc, user
+    }
+
+    private PropertyResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new PropertyResolver(DebugLog.DISABLED);
+    }
+
+    @Test
+    @DisplayName("Large property groups are resolved through the context index")
+    void largePropertyGroupsAreResolvedThroughTheContextIndex() {
+        ContextProperty property = largePropertyGroup();
+        assertThat(property.contextIndex()).isNotNull();
+
+        assertThat(resolve(property, predicates("env5", "nyk"))).isEqualTo("env5");
+        assertThat(resolve(property, predicates("unknown", "nyk"))).isEqualTo("default");
+    }
+
+    @Test
+    @DisplayName("The context with the most matched keys wins regardless of its position in the group")
+    void theContextWithTheMostMatchedKeysWins() {
+        ContextProperty property = largePropertyGroup();
+
+        assertThat(resolve(property, predicates("env3", "ldn"))).isEqualTo("env3-ldn");
+        assertThat(resolve(property, predicates("env3", "nyk"))).isEqualTo("env3");
+    }
+
+    @Test
+    @DisplayName("Contexts which do not constrain a domain key match any predicate value of that key")
+    void contextsWhichDoNotConstrainADomainKeyMatchAnyPredicateValue() {
+        ContextProperty property = largePropertyGroup();
+
+        assertThat(resolve(property, predicates("unknown", "par"))).isEqualTo("par");
+        assertThat(resolve(property, predicates("env5", "par"))).isEqualTo("env5");
+    }
+
+    @Test
+    @DisplayName("Small property groups are resolved by matching the coded conditions of each context")
+    void smallPropertyGroupsAreResolvedByMatchingTheCodedConditionsOfEachContext() {
+        ContextProperty property = aContextProperty()
+                .defaultValue("default")
+                .add(context().condition("env", "uat").getWithValue("uat"))
+                .add(context().condition("env", "uat").condition("loc", asSet("ldn", "nyk")).getWithValue("uat-ldn"))
+                .get();
+        assertThat(property.contextIndex()).isNull();
+
+        assertThat(resolve(property, predicates("uat", "nyk"))).isEqualTo("uat-ldn");
+        assertThat(resolve(property, predicates("uat", "par"))).isEqualTo("uat");
+        assertThat(resolve(property, predicates("prd", "ldn"))).isEqualTo("default");
+    }
+
+    @Test
+    @DisplayName("Predicates are coded once per dictionary")
+    void predicatesAreCodedOncePerDictionary() {
+        ContextProperty property = largePropertyGroup();
+        DomainPredicates predicates = predicates("env1", "ldn");
+
+        assertThat(predicates.valueIds(property.codes())).isSameAs(predicates.valueIds(property.codes()));
+    }
+
+    private String resolve(ContextProperty property, DomainPredicates predicates) {
+        PropertyValue value = resolver.resolve(property, predicates);
+        return value != null ? value.text() : null;
+    }
+
+    private ContextProperty largePropertyGroup() {
+        ContextProperty.Builder builder = aContextProperty().defaultValue("default");
+        for (int i = 0; i < ContextIndex.MIN_CONTEXTS; i++) {
+            builder.add(context().condition("env", asSet("env" + i, "other" + i)).getWithValue("env" + i));
+        }
+        return builder
+                .add(context().condition("env", "env3").condition("loc", "ldn").getWithValue("env3-ldn"))
+                .add(context().condition("loc", "par").getWithValue("par"))
+                .get();
+    }
+
+    private DomainPredicates predicates(String env, String loc) {
+        return DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", env)
+                .predicate("loc", loc)
+                .predicate("user", "kkarad")
+                .create();
+    }
+}
@@ -0,0 +1,133 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.kkarad.contextprop.Context.Builder.context;
+import static org.kkarad.contextprop.JdkCollections.asSet;
+
+class PropertySnapshotTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private static final String SOURCE = "my.property.a=a\n" +
+            "my.property.a.CTXT(env[uat,prd])=a-uat\n" +
+            "my.property.a.CTXT(env[uat],loc[ldn])=a-uat-ldn\n" +
+            "my.property.b.CTXT(loc[nyk])=b-nyk\n";
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    private Path directory;
+
+    private Path source;
+
+    private Path snapshot;
+
+    private ContextProperties.Builder builder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("contextprop");
+        source = directory.resolve("context.properties");
+        snapshot = directory.resolve("context.snapshot");
+        builder = ContextProperties.basedOnDomain(MyDomain.class).snapshotCache(snapshot);
+        write(SOURCE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(snapshot);
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Properties loaded from the snapshot resolve like the properties parsed from the source")
+    void propertiesLoadedFromTheSnapshotResolveLikeThePropertiesParsedFromTheSource() throws IOException {
+        ContextProperties parsed = builder.create(source);
+        assertThat(snapshot).exists();
+
+        ContextProperties loaded = builder.create(source);
+
+        for (String key : new String[]{"my.property.a", "my.property.b"}) {
+            assertThat(loaded.resolveOptString(key, predicates)).isEqualTo(parsed.resolveOptString(key, predicates));
+        }
+        assertThat(loaded.resolveString("my.property.a", predicates)).isEqualTo("a-uat-ldn");
+        assertThat(loaded.nullableContextProperty("my.property.a").toString())
+                .isEqualTo(parsed.nullableContextProperty("my.property.a").toString());
+        assertThrows(IllegalStateException.class, () -> builder.lazy().create(source));
+    }
+
+    @Test
+    @DisplayName("A snapshot which matches the hash of the source is loaded instead of parsing the source")
+    void aSnapshotWhichMatchesTheHashOfTheSourceIsLoadedInsteadOfParsingTheSource() throws IOException {
+        ContextProperty cached = ContextProperty.Builder.contextProperty("my.property.a")
+                .defaultValue("cached")
+                .add(context().condition("env", asSet("uat")).getWithValue("cached-uat"))
+                .get();
+        byte[] sourceHash = PropertySnapshot.hash(Files.readAllBytes(source));
+        PropertySnapshot.write(snapshot, sourceHash, Domain.create(MyDomain.class), Collections.singleton(cached));
+
+        ContextProperties loaded = builder.create(source);
+
+        assertThat(loaded.resolveString("my.property.a", predicates)).isEqualTo("cached-uat");
+        assertThat(loaded.resolveOptString("my.property.b", predicates)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A stale or corrupt snapshot is replaced by the snapshot of the source")
+    void aStaleOrCorruptSnapshotIsReplacedByTheSnapshotOfTheSource() throws IOException {
+        builder.create(source);
+        write(SOURCE.replace("a-uat-ldn", "a-uat-ldn-2"));
+
+        assertThat(builder.create(source).resolveString("my.property.a", predicates)).isEqualTo("a-uat-ldn-2");
+        assertThat(builder.create(source).resolveString("my.property.a", predicates)).isEqualTo("a-uat-ldn-2");
+
+        byte[] corrupt = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(corrupt, corrupt.length / 2));
+
+        assertThat(builder.create(source).resolveString("my.property.a", predicates)).isEqualTo("a-uat-ldn-2");
+        assertThat(Files.size(snapshot)).isEqualTo(corrupt.length);
+    }
+
+    @Test
+    @DisplayName("A snapshot with any byte after the hash flipped or truncated is rebuilt")
+    void aSnapshotWithAnyByteAfterTheHashFlippedOrTruncatedIsRebuilt() throws IOException {
+        builder.create(source);
+        byte[] valid = Files.readAllBytes(snapshot);
+        int hashEnd = 3 * Integer.BYTES + PropertySnapshot.hash(valid).length;
+
+        for (int i = hashEnd; i < valid.length; i++) {
+            byte[] flipped = valid.clone();
+            flipped[i] ^= (byte) 0x80;
+            Files.write(snapshot, flipped);
+            assertThat(builder.create(source).resolveString("my.property.a", predicates)).as("flipped byte " + i)
+                    .isEqualTo("a-uat-ldn");
+
+            Files.write(snapshot, Arrays.copyOf(valid, i));
+            assertThat(builder.create(source).resolveString("my.property.a", predicates)).as("truncated at " + i)
+                    .isEqualTo("a-uat-ldn");
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(source, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
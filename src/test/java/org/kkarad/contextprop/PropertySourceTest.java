@@ -0,0 +1,90 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PropertySourceTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env
+    }
+
+    private static final String TEXT = "# comment \\\n" +
+            "  ! another comment\n" +
+            "\n" +
+            "my.prop.key.CTXT(env[uat],loc[ldn,nyk]) = myValue\n" +
+            "my.prop.key:defaultValue\r\n" +
+            "my.prop.space   value with spaces  \r" +
+            "my.prop.multi = first, \\\n" +
+            "                second, \\\r\n" +
+            "\tthird\n" +
+            "my\\ prop\\=escaped\\:key = \\ \\t\\u0041\\\\\\#\n" +
+            "\\#not.a.comment\n" +
+            "my.prop.empty\n" +
+            "my.prop.no.line.end=last";
+
+    @Test
+    @DisplayName("Reader source results to the same entries as Properties.load and rejects malformed unicode escapes")
+    void readerSourceResultsToTheSameEntriesAsPropertiesLoadAndRejectsMalformedUnicodeEscapes() throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        PropertySource.of(new StringReader(TEXT)).forEachEntry(entries::put);
+
+        assertThat(entries).isEqualTo(load(TEXT)).hasSize(8);
+        assertThat(entries).containsEntry("my prop=escaped:key", " \tA\\#");
+        assertThrows(IllegalArgumentException.class,
+                () -> PropertySource.of(new StringReader("key=\\u00g1")).forEachEntry((key, value) -> {
+                }));
+    }
+
+    @Test
+    @DisplayName("Byte sources are read as ISO 8859-1 and result to the same entries as Properties.load")
+    void byteSourcesAreReadAsIso88591() throws IOException {
+        String text = TEXT + "\nmy.prop.latin=caf\u00e9";
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+
+        Map<String, String> fromStream = new HashMap<>();
+        PropertySource.of(new ByteArrayInputStream(bytes)).forEachEntry(fromStream::put);
+        Map<String, String> fromBuffer = new HashMap<>();
+        PropertySource.of(ByteBuffer.wrap(bytes)).forEachEntry(fromBuffer::put);
+
+        assertThat(fromStream).isEqualTo(load(text)).containsEntry("my.prop.latin", "caf\u00e9");
+        assertThat(fromBuffer).isEqualTo(fromStream);
+    }
+
+    @Test
+    @DisplayName("A repeated key replaces the earlier value unless duplicate keys are rejected")
+    void aRepeatedKeyReplacesTheEarlierValueUnlessDuplicateKeysAreRejected() throws IOException {
+        String text = "my.prop.key=first\nmy.prop.key=second";
+        DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class).predicate("env", "uat").create();
+
+        assertThat(PropertySource.of(new StringReader(text)).entries(false)).isEqualTo(load(text));
+        assertThat(ContextProperties.basedOnDomain(MyDomain.class).create(new StringReader(text))
+                .resolveString("my.prop.key", predicates)).isEqualTo("second");
+        assertThrows(ContextPropParseException.class, () -> ContextProperties.basedOnDomain(MyDomain.class)
+                .rejectDuplicateKeys()
+                .create(new StringReader(text)));
+        assertThrows(ContextPropParseException.class,
+                () -> PropertySource.of(new StringReader(text)).entries(true));
+    }
+
+    private static Map<String, String> load(String text) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(text));
+        Map<String, String> entries = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> entries.put(key, properties.getProperty(key)));
+        return entries;
+    }
+}
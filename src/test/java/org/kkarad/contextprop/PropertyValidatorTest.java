@@ -4,12 +4,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.kkarad.contextprop.Context.Builder.context;
 import static org.kkarad.contextprop.Error.Type.*;
 import static org.kkarad.contextprop.JdkCollections.asSet;
+import static org.kkarad.contextprop.ContextProperty.Builder.contextProperty;
 import static org.kkarad.contextprop.TestBuilders.aContextProperty;
 
 class PropertyValidatorTest {
@@ -136,5 +141,95 @@ class PropertyValidatorTest {
                 assertThat(error.type()).isEqualTo(CONTEXT_SCOPE_CONFLICT));
     }
 
+    @Test
+    @DisplayName("The scope conflict of a big property group is reported between its first conflicting contexts")
+    void theScopeConflictOfABigPropertyGroupIsReportedBetweenItsFirstConflictingContexts() {
+        ContextProperty.Builder builder = aContextProperty();
+        for (int i = 0; i < 2000; i++) {
+            builder.add(context()
+                    .condition("env", "env" + i)
+                    .condition("loc", "uk")
+                    .getWithValue("value" + i));
+        }
+        builder.add(context()
+                .condition("env", asSet("other", "env7"))
+                .getWithValue("other"));
+        builder.add(context()
+                .condition("env", asSet("env900"))
+                .condition("loc", asSet("home", "uk"))
+                .getWithValue("env900"));
+        ContextProperty contextProperty = builder.get();
+
+        Optional<Error> validation = new PropertyValidator(domainPredicates.domain(), false)
+                .validate(contextProperty);
+
+        assertThat(validation).isPresent().hasValueSatisfying(error -> {
+            assertThat(error.type()).isEqualTo(CONDITION_ORDER_VIOLATION);
+            assertThat(error.message()).contains("'loc'", "other");
+        });
+
+        builder = aContextProperty();
+        for (int i = 0; i < 2000; i++) {
+            builder.add(context()
+                    .condition("env", "env" + i)
+                    .condition("loc", "loc" + i)
+                    .getWithValue("value" + i));
+        }
+        builder.add(context()
+                .condition("env", "env1500")
+                .condition("loc", "home")
+                .getWithValue("env1500"));
+        builder.add(context()
+                .condition("env", "other")
+                .condition("loc", "loc1200")
+                .getWithValue("other"));
+        contextProperty = builder.get();
+
+        validation = validator.validate(contextProperty);
+
+        assertThat(validation).isPresent().hasValueSatisfying(error -> {
+            assertThat(error.type()).isEqualTo(CONTEXT_SCOPE_CONFLICT);
+            assertThat(error.message()).endsWith(
+                    "between contexts: env(env1200),loc(loc1200), env(other),loc(loc1200)");
+        });
+    }
+
+    @Test
+    @DisplayName("Validate all reports every error of every property sorted by property key")
+    void validateAllReportsEveryErrorOfEveryPropertySortedByPropertyKey() {
+        ContextProperty invalid = contextProperty("my.b")
+                .add(context()
+                        .condition("env", "test")
+                        .condition("loc", "uk")
+                        .getWithValue("value1"))
+                .add(context()
+                        .condition("env", asSet("test", "real"))
+                        .condition("loc", "home")
+                        .getWithValue("value2"))
+                .add(context()
+                        .condition("env", "real")
+                        .getWithValue("value3"))
+                .get();
+        ContextProperty unknown = contextProperty("my.a")
+                .add(context()
+                        .condition("app", "whatsapp")
+                        .getWithValue("myValue"))
+                .defaultValue("defaultValue")
+                .get();
+        ContextProperty valid = contextProperty("my.c")
+                .add(context()
+                        .condition("env", "test")
+                        .getWithValue("myValue"))
+                .defaultValue("defaultValue")
+                .get();
+        List<ContextProperty> properties = Arrays.asList(valid, invalid, unknown);
 
-}
\ No newline at end of file
+        List<Error> errors = new PropertyValidator(domainPredicates.domain(), true).validateAll(properties);
+
+        assertThat(errors.stream().map(Error::type).collect(Collectors.toList())).containsExactly(
+                INVALID_DOMAIN, MISSING_DEFAULT, CONDITION_ORDER_VIOLATION, CONTEXT_SCOPE_CONFLICT);
+        assertThat(new PropertyValidator(domainPredicates.domain(), true, ForkJoinPool.commonPool())
+                .validateAll(properties)).extracting(Error::message)
+                .isEqualTo(errors.stream().map(Error::message).collect(Collectors.toList()));
+    }
+}
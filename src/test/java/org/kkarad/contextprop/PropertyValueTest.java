@@ -0,0 +1,28 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PropertyValueTest {
+
+    @Test
+    @DisplayName("Typed value is parsed once per type and reused by later lookups of the same type")
+    void typedValueIsParsedOncePerTypeAndReusedByLaterLookupsOfTheSameType() {
+        PropertyValue value = new PropertyValue("1.23");
+
+        BigDecimal first = value.as(PropertyValue.BIG_DECIMAL);
+
+        assertThat(first).isEqualTo(new BigDecimal("1.23"));
+        assertThat(value.as(PropertyValue.BIG_DECIMAL)).isSameAs(first);
+        Double second = value.as(PropertyValue.DOUBLE);
+        assertThat(second).isEqualTo(1.23);
+        assertThat(value.as(PropertyValue.BIG_DECIMAL)).isSameAs(first);
+        assertThat(value.as(PropertyValue.DOUBLE)).isSameAs(second);
+        assertThrows(ParseException.class, () -> value.as(PropertyValue.BOOLEAN));
+    }
+}
@@ -0,0 +1,122 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReloadableContextPropertiesTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env
+    }
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .create();
+
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+
+    private Path directory;
+
+    private Path file;
+
+    private ReloadableContextProperties reloadable;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("contextprop");
+        file = directory.resolve("context.properties");
+        write("my.property=default\nmy.property.CTXT(env[uat])=uat-1\n");
+        reloadable = ContextProperties.basedOnDomain(MyDomain.class)
+                .reloadDebounce(20, TimeUnit.MILLISECONDS)
+                .reloadErrorConsumer(errors::add)
+                .createReloadable(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        reloadable.close();
+        Files.deleteIfExists(file);
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("A pinned version keeps its values after a reload publishes a new version")
+    void aPinnedVersionKeepsItsValuesAfterAReloadPublishesANewVersion() throws IOException {
+        ReloadableContextProperties.Version pinned = reloadable.current();
+
+        write("my.property=default\nmy.property.CTXT(env[uat])=uat-2\n");
+        reloadable.reload();
+
+        assertThat(pinned.number()).isEqualTo(1);
+        assertThat(pinned.properties().resolveString("my.property", predicates)).isEqualTo("uat-1");
+        assertThat(reloadable.current().number()).isGreaterThanOrEqualTo(2);
+        assertThat(reloadable.properties().resolveString("my.property", predicates)).isEqualTo("uat-2");
+    }
+
+    @Test
+    @DisplayName("Changes of the file are reloaded in the background")
+    void changesOfTheFileAreReloadedInTheBackground() throws Exception {
+        write("my.property=default\nmy.property.CTXT(env[uat])=uat-2\n");
+
+        awaitVersion(2);
+        assertThat(reloadable.properties().resolveString("my.property", predicates)).isEqualTo("uat-2");
+    }
+
+    @Test
+    @DisplayName("Failed reload keeps the current version and reports the error")
+    void failedReloadKeepsTheCurrentVersionAndReportsTheError() throws Exception {
+        write("my.property.CTXT(env[uat]=broken\n");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (errors.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(errors).hasAtLeastOneElementOfType(ContextPropParseException.class);
+        assertThat(reloadable.current().number()).isEqualTo(1);
+        assertThat(reloadable.properties().resolveString("my.property", predicates)).isEqualTo("uat-1");
+    }
+
+    @Test
+    @DisplayName("Deleted file is reported and reloaded when it is created again")
+    void deletedFileIsReportedAndReloadedWhenItIsCreatedAgain() throws Exception {
+        Files.delete(file);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (errors.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(errors).hasAtLeastOneElementOfType(NoSuchFileException.class);
+        assertThat(reloadable.current().number()).isEqualTo(1);
+
+        write("my.property=default\nmy.property.CTXT(env[uat])=uat-2\n");
+
+        awaitVersion(2);
+        assertThat(reloadable.properties().resolveString("my.property", predicates)).isEqualTo("uat-2");
+    }
+
+    private void awaitVersion(long number) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reloadable.current().number() < number && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(reloadable.current().number()).isGreaterThanOrEqualTo(number);
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
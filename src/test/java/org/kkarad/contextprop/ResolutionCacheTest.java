@@ -0,0 +1,112 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kkarad.contextprop.ContextProperty.Builder.contextProperty;
+
+class ResolutionCacheTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, user
+    }
+
+    private final ContextProperty property = contextProperty("my.property.key").defaultValue("value").get();
+
+    private List<String> resolutions;
+
+    private BiFunction<ContextProperty, DomainPredicates, PropertyValue> resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolutions = new ArrayList<>();
+        resolver = (property, predicates) -> {
+            resolutions.add(predicates.value("user"));
+            return property.defaultPropertyValue();
+        };
+    }
+
+    @Test
+    @DisplayName("Predicates with the same values are equal and share the cached resolution")
+    void predicatesWithTheSameValuesAreEqualAndShareTheCachedResolution() {
+        ResolutionCache cache = ResolutionCache.create(10, CacheEviction.LEAST_RECENTLY_USED);
+
+        assertThat(predicates("john")).isEqualTo(predicates("john"));
+        assertThat(predicates("john").hashCode()).isEqualTo(predicates("john").hashCode());
+        assertThat(cache.resolve(property, predicates("john"), resolver))
+                .isSameAs(cache.resolve(property, predicates("john"), resolver))
+                .isSameAs(property.defaultPropertyValue());
+
+        assertThat(resolutions).containsExactly("john");
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Least recently used cache evicts the resolution which was looked up least recently")
+    void leastRecentlyUsedCacheEvictsTheResolutionWhichWasLookedUpLeastRecently() {
+        ResolutionCache cache = ResolutionCache.create(2, CacheEviction.LEAST_RECENTLY_USED);
+
+        cache.resolve(property, predicates("john"), resolver);
+        cache.resolve(property, predicates("jane"), resolver);
+        cache.resolve(property, predicates("john"), resolver);
+        cache.resolve(property, predicates("mary"), resolver); //evicts jane
+        cache.resolve(property, predicates("john"), resolver);
+        cache.resolve(property, predicates("jane"), resolver);
+
+        assertThat(resolutions).containsExactly("john", "jane", "mary", "jane");
+        assertThat(cache.stats().evictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Least frequently used cache evicts the resolution which was looked up the least number of times")
+    void leastFrequentlyUsedCacheEvictsTheResolutionWhichWasLookedUpTheLeastNumberOfTimes() {
+        ResolutionCache cache = ResolutionCache.create(2, CacheEviction.LEAST_FREQUENTLY_USED);
+
+        cache.resolve(property, predicates("john"), resolver);
+        cache.resolve(property, predicates("john"), resolver);
+        cache.resolve(property, predicates("jane"), resolver);
+        cache.resolve(property, predicates("mary"), resolver); //evicts jane
+        cache.resolve(property, predicates("mary"), resolver);
+        cache.resolve(property, predicates("mary"), resolver);
+        cache.resolve(property, predicates("jane"), resolver); //evicts john
+
+        assertThat(resolutions).containsExactly("john", "jane", "mary", "jane");
+        assertThat(cache.stats().evictionCount()).isEqualTo(2);
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A cache larger than the eviction sample stays bounded under concurrent resolutions")
+    void aCacheLargerThanTheEvictionSampleStaysBoundedUnderConcurrentResolutions() {
+        ResolutionCache cache = ResolutionCache.create(50, CacheEviction.LEAST_RECENTLY_USED);
+        BiFunction<ContextProperty, DomainPredicates, PropertyValue> concurrentResolver =
+                (property, predicates) -> property.defaultPropertyValue();
+
+        IntStream.range(0, 10_000).parallel().forEach(i ->
+                assertThat(cache.resolve(property, predicates("user" + i % 200), concurrentResolver))
+                        .isSameAs(property.defaultPropertyValue()));
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(50);
+        assertThat(stats.hitCount() + stats.missCount()).isEqualTo(10_000);
+        assertThat(stats.evictionCount()).isGreaterThanOrEqualTo(150);
+    }
+
+    private DomainPredicates predicates(String user) {
+        return DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "prd")
+                .predicate("user", user)
+                .create();
+    }
+}
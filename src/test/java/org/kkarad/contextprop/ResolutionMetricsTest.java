@@ -0,0 +1,110 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResolutionMetricsTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private final DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate("env", "uat")
+            .predicate("loc", "ldn")
+            .create();
+
+    private Properties unresolved;
+
+    @BeforeEach
+    void setUp() {
+        unresolved = new Properties();
+        unresolved.setProperty("my.property.a", "a");
+        unresolved.setProperty("my.property.a.CTXT(env[uat])", "a-uat");
+        unresolved.setProperty("my.property.a.CTXT(env[prd])", "a-prd");
+        unresolved.setProperty("my.property.b", "b");
+        unresolved.setProperty("my.property.b.CTXT(env[prd])", "b-prd");
+        unresolved.setProperty("my.property.overridden", "c");
+    }
+
+    @Test
+    @DisplayName("Resolutions are counted per outcome, per property and per latency")
+    void resolutionsAreCountedPerOutcomePerPropertyAndPerLatency() {
+        System.setProperty("my.property.overridden", "overriddenValue");
+        ContextProperties properties;
+        try {
+            properties = ContextProperties.basedOnDomain(MyDomain.class)
+                    .allowSystemPropertyOverride()
+                    .metrics()
+                    .create(unresolved);
+            IntStream.range(0, 100).parallel()
+                    .forEach(i -> assertThat(properties.resolveString("my.property.a", predicates)).isEqualTo("a-uat"));
+            assertThat(properties.resolveString("my.property.b", predicates)).isEqualTo("b");
+            assertThat(properties.resolveString("my.property.overridden", predicates)).isEqualTo("overriddenValue");
+            assertThat(properties.resolveOptString("my.property.x", predicates)).isEmpty();
+            assertThrows(PropertyNotFoundException.class, () -> properties.resolveString("my.property.y", predicates));
+        } finally {
+            System.clearProperty("my.property.overridden");
+        }
+
+        ResolutionMetricsMXBean metrics = properties.resolutionMetrics().get();
+        assertThat(metrics.getResolutionCount()).isEqualTo(102);
+        assertThat(metrics.getContextHitCount()).isEqualTo(100);
+        assertThat(metrics.getDefaultHitCount()).isEqualTo(1);
+        assertThat(metrics.getSystemOverrideCount()).isEqualTo(1);
+        assertThat(metrics.getMissingPropertyCount()).isEqualTo(2);
+        assertThat(metrics.getContextsScannedCount()).isEqualTo(201);
+        assertThat(metrics.getIndexedMatchCount()).isEqualTo(0);
+        assertThat(metrics.getResolutionsPerProperty())
+                .containsEntry("my.property.a", 100L)
+                .containsEntry("my.property.b", 1L)
+                .containsEntry("my.property.overridden", 1L)
+                .hasSize(3);
+        assertThat(Arrays.stream(metrics.getLatencyHistogram()).sum()).isEqualTo(102);
+        assertThat(ResolutionMetrics.bucket(0)).isEqualTo(0);
+        assertThat(ResolutionMetrics.bucket(1000)).isEqualTo(10);
+        assertThat(ResolutionMetrics.bucket(Long.MAX_VALUE)).isEqualTo(ResolutionMetrics.LATENCY_BUCKETS - 1);
+
+        metrics.reset();
+        assertThat(metrics.getResolutionCount()).isEqualTo(0);
+        assertThat(metrics.getResolutionsPerProperty()).isEmpty();
+        assertThat(ContextProperties.basedOnDomain(MyDomain.class).create(unresolved).resolutionMetrics()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Metrics registered as MBean are shared by the properties of the builder until a new builder replaces them")
+    void metricsRegisteredAsMBeanAreSharedByThePropertiesOfTheBuilderUntilANewBuilderReplacesThem() throws Exception {
+        String name = "org.kkarad.contextprop:type=ResolutionMetrics,name=test";
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ContextProperties.Builder builder = ContextProperties.basedOnDomain(MyDomain.class).metrics(name);
+        try {
+            ContextProperties properties = builder.create(unresolved);
+            ContextProperties updated = builder.update(properties, unresolved);
+            properties.resolveString("my.property.a", predicates);
+            updated.resolveString("my.property.b", predicates);
+
+            assertThat(updated.resolutionMetrics().get()).isSameAs(properties.resolutionMetrics().get());
+            assertThat(server.getAttribute(new ObjectName(name), "ResolutionCount")).isEqualTo(2L);
+            assertThat(server.getAttribute(new ObjectName(name), "DefaultHitCount")).isEqualTo(1L);
+
+            ContextProperties.basedOnDomain(MyDomain.class).metrics(name);
+            assertThat(server.getAttribute(new ObjectName(name), "ResolutionCount")).isEqualTo(0L);
+            assertThrows(IllegalArgumentException.class, () -> ContextProperties.basedOnDomain(MyDomain.class)
+                    .metrics(ManagementFactory.RUNTIME_MXBEAN_NAME));
+        } finally {
+            server.unregisterMBean(new ObjectName(name));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.kkarad.contextprop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScopedPredicatesTest {
+
+    @SuppressWarnings("unused")
+    enum MyDomain {
+        env, loc
+    }
+
+    private final DomainPredicates uat = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate(MyDomain.env, "uat")
+            .predicate(MyDomain.loc, "ldn")
+            .create();
+
+    private final DomainPredicates prd = DomainPredicates.basedOnDomain(MyDomain.class)
+            .predicate(MyDomain.env, "prd")
+            .predicate(MyDomain.loc, "ldn")
+            .create();
+
+    @Test
+    @DisplayName("Properties are resolved against the predicates of the current scope")
+    void propertiesAreResolvedAgainstThePredicatesOfTheCurrentScope() {
+        Properties unresolved = new Properties();
+        unresolved.setProperty("db.pool.size", "10");
+        unresolved.setProperty("db.pool.size.CTXT(env[uat])", "2");
+        unresolved.setProperty("db.url.CTXT(env[prd])", "jdbc:h2:mem");
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class).create(unresolved);
+
+        ScopedPredicates.run(uat, () -> {
+            assertThat(properties.resolveInteger("db.pool.size")).isEqualTo(2);
+            assertThat(properties.resolveOptString("db.url")).isEmpty();
+            assertThat(ScopedPredicates.call(prd, () -> properties.resolveString("db.url"))).isEqualTo("jdbc:h2:mem");
+            assertThat(properties.view("db.pool.").resolveInteger("size", 0)).isEqualTo(2);
+        });
+        assertThrows(IllegalStateException.class, () -> properties.resolveInteger("db.pool.size"));
+    }
+
+    @Test
+    @DisplayName("Nested scopes restore the enclosing predicates and are not visible to other threads")
+    void nestedScopesRestoreTheEnclosingPredicatesAndAreNotVisibleToOtherThreads() {
+        assertThat(ScopedPredicates.isBound()).isFalse();
+
+        ScopedPredicates.run(uat, () -> {
+            assertThat(ScopedPredicates.current()).isSameAs(uat);
+            assertThrows(IllegalArgumentException.class, () -> ScopedPredicates.run(prd, () -> {
+                assertThat(ScopedPredicates.current()).isSameAs(prd);
+                throw new IllegalArgumentException();
+            }));
+            assertThat(ScopedPredicates.current()).isSameAs(uat);
+        });
+
+        assertThat(ScopedPredicates.isBound()).isFalse();
+        assertThrows(IllegalStateException.class, ScopedPredicates::current);
+        assertThat(ScopedPredicates.call(uat, () -> CompletableFuture.supplyAsync(ScopedPredicates::isBound).join()))
+                .isFalse();
+    }
+}
@@ -1,11 +1,17 @@
 package org.kkarad.contextprop.examples;
 
 import org.junit.jupiter.api.Test;
+import org.kkarad.contextprop.CacheEviction;
 import org.kkarad.contextprop.ContextProperties;
 import org.kkarad.contextprop.DomainPredicates;
 import org.kkarad.contextprop.TypedProperties;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -112,4 +118,121 @@ class ApiUseCases {
         assertThat(properties.resolveLong("my.prop.long", predicates)).isEqualTo(123456789);
         assertThat(properties.resolveBigDecimal("my.prop.bd", predicates)).isEqualTo(new BigDecimal("1.23"));
     }
+
+    @Test
+    void createContextPropertiesAndResolveTypedProperties() {
+        Properties ctxProperties = new Properties();
+        ctxProperties.setProperty("my.prop.boolean.CTXT(env[uat],loc[ldn,nyk])", "true");
+        ctxProperties.setProperty("my.prop.boolean", "false");
+        ctxProperties.setProperty("my.prop.int.CTXT(env[prod])", "123");
+        ctxProperties.setProperty("my.prop.int", "-123");
+
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class)
+                .create(ctxProperties);
+
+        DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "uat")
+                .predicate("loc", "ldn")
+                .predicate("group", "internal")
+                .predicate("app", "whatsapp")
+                .predicate("host", "localhost")
+                .predicate("user", "kkarad")
+                .create();
+
+        TypedProperties typedProperties = properties.resolveTyped(predicates);
+
+        assertThat(typedProperties.getBoolean("my.prop.boolean")).isTrue();
+        assertThat(typedProperties.getInteger("my.prop.int")).isEqualTo(-123);
+        assertThat(typedProperties.getOptString("my.prop.unknown")).isEmpty();
+    }
+
+    @Test
+    void createContextPropertiesWithResolutionCache() {
+        Properties ctxProperties = new Properties();
+        ctxProperties.setProperty("my.prop.int.CTXT(user[kkarad])", "123");
+        ctxProperties.setProperty("my.prop.int", "-123");
+
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class)
+                .resolutionCache(10_000, CacheEviction.LEAST_RECENTLY_USED)
+                .create(ctxProperties);
+
+        for (String user : new String[]{"kkarad", "john", "kkarad"}) {
+            DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+                    .predicate("env", "uat")
+                    .predicate("loc", "ldn")
+                    .predicate("group", "internal")
+                    .predicate("app", "whatsapp")
+                    .predicate("host", "localhost")
+                    .predicate("user", user)
+                    .create();
+
+            assertThat(properties.resolveInteger("my.prop.int", predicates)).isEqualTo(user.equals("kkarad") ? 123 : -123);
+        }
+
+        assertThat(properties.cacheStats()).hasValueSatisfying(stats -> {
+            assertThat(stats.hitCount()).isEqualTo(1);
+            assertThat(stats.missCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void resolvePrimitivesWithDefaultValues() {
+        Properties ctxProperties = new Properties();
+        ctxProperties.setProperty("my.prop.int.CTXT(env[uat])", "123");
+        ctxProperties.setProperty("my.prop.double", "1.5");
+        ctxProperties.setProperty("my.prop.empty", "");
+
+        ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class)
+                .create(ctxProperties);
+
+        DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "prd")
+                .predicate("loc", "ldn")
+                .predicate("group", "internal")
+                .predicate("app", "whatsapp")
+                .predicate("host", "localhost")
+                .predicate("user", "kkarad")
+                .create();
+
+        assertThat(properties.resolveInteger("my.prop.int", predicates, -1)).isEqualTo(-1);
+        assertThat(properties.resolveDouble("my.prop.double", predicates, 0.0)).isEqualTo(1.5);
+        assertThat(properties.resolveLong("my.prop.empty", predicates, 7L)).isEqualTo(7L);
+        assertThat(properties.resolveBoolean("my.prop.unknown", predicates, true)).isTrue();
+
+        TypedProperties typedProperties = properties.resolveTyped(predicates);
+        assertThat(typedProperties.getInteger("my.prop.int", -1)).isEqualTo(-1);
+        assertThat(typedProperties.getDouble("my.prop.double", 0.0)).isEqualTo(1.5);
+        assertThat(typedProperties.getLong("my.prop.empty", 7L)).isEqualTo(7L);
+        assertThat(typedProperties.getBoolean("my.prop.unknown", true)).isTrue();
+    }
+
+    @Test
+    void createContextPropertiesFromFileAndResolveFromReader() throws IOException {
+        String text = "# streamed without java.util.Properties\n" +
+                "my.prop.key.CTXT(env[uat],loc[ldn,nyk]) = myValue\n" +
+                "my.prop.key = defaultValue\n";
+
+        DomainPredicates predicates = DomainPredicates.basedOnDomain(MyDomain.class)
+                .predicate("env", "uat")
+                .predicate("loc", "ldn")
+                .predicate("group", "internal")
+                .predicate("app", "whatsapp")
+                .predicate("host", "localhost")
+                .predicate("user", "kkarad")
+                .create();
+
+        Path file = Files.createTempFile("context", ".properties");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.ISO_8859_1));
+            ContextProperties properties = ContextProperties.basedOnDomain(MyDomain.class)
+                    .create(file);
+            assertThat(properties.resolveString("my.prop.key", predicates)).isEqualTo("myValue");
+        } finally {
+            Files.delete(file);
+        }
+
+        Properties resolved = ContextProperties.basedOn(predicates)
+                .resolve(new StringReader(text));
+        assertThat(resolved.getProperty("my.prop.key")).isEqualTo("myValue");
+    }
 }